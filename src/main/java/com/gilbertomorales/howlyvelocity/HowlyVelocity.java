@@ -21,6 +21,7 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import org.slf4j.Logger;
 
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 @Plugin(
         id = "howlyvelocity",
@@ -47,6 +48,7 @@ public class HowlyVelocity {
     private PlaceholderManager placeholderManager;
     private HowlyAPI api;
     private GroupManager groupManager;
+    private ChatPrefixCache chatPrefixCache;
     private MOTDManager motdManager;
     private PlaytimeManager playtimeManager;
     private PunishmentManager punishmentManager;
@@ -87,20 +89,27 @@ public class HowlyVelocity {
             // Inicializar gerenciadores básicos
             playerDataManager = new PlayerDataManager(databaseManager);
 
-            tagManager = new TagManager(databaseManager);
+            tagManager = new TagManager(databaseManager, playerDataManager);
             tagManager.loadTags();
 
-            medalManager = new MedalManager(databaseManager);
+            medalManager = new MedalManager(databaseManager, playerDataManager);
             medalManager.loadMedals();
 
-            ignoreManager = new IgnoreManager(dataDirectory);
-            ignoreManager.loadIgnoreData();
+            // Listas de ignorados ficam no banco e são carregadas no login
+            ignoreManager = new IgnoreManager(dataDirectory, databaseManager);
+            ignoreManager.importLegacyFile();
 
             // Inicializar GroupManager
             groupManager = new GroupManager();
 
+            // Prefixos de chat em cache, refeitos quando tag, medalha ou grupo mudam
+            chatPrefixCache = new ChatPrefixCache(tagManager, medalManager, groupManager);
+            tagManager.setPrefixCache(chatPrefixCache);
+            medalManager.setPrefixCache(chatPrefixCache);
+            groupManager.onUserDataRecalculate(this, chatPrefixCache::invalidate);
+
             // Inicializar PlaytimeManager
-            playtimeManager = new PlaytimeManager(databaseManager);
+            playtimeManager = new PlaytimeManager(databaseManager, playerDataManager, dataDirectory);
 
             // Inicializar MOTDManager
             motdManager = new MOTDManager(dataDirectory);
@@ -110,6 +119,7 @@ public class HowlyVelocity {
 
             // Inicializar API
             api = new HowlyAPI(this);
+            logger.info(LogColor.info("HowlyVelocity", "Índice de punições: " + api.getPunishmentIndexStats()));
 
             // AGORA inicializar a PunishmentAPI no ChatManager
             chatManager.initializePunishmentAPI();
@@ -119,7 +129,7 @@ public class HowlyVelocity {
 
             // Registrar listeners
             server.getEventManager().register(this, new PlayerListener(server, logger, playerDataManager, tagManager));
-            server.getEventManager().register(this, new ChatListener(server, api, tagManager, medalManager, ignoreManager, chatManager, groupManager));
+            server.getEventManager().register(this, new ChatListener(server, api, ignoreManager, chatManager, chatPrefixCache));
             server.getEventManager().register(this, new ServerPingListener(motdManager));
             server.getEventManager().register(this, new MaintenanceListener(motdManager));
 
@@ -176,6 +186,9 @@ public class HowlyVelocity {
         commandManager.register("mute", new MuteCommand(server, tagManager));
         commandManager.register("unban", new UnbanCommand(server, tagManager));
         commandManager.register("unmute", new UnmuteCommand(server, tagManager));
+        commandManager.register("banip", new BanIpCommand(server));
+        commandManager.register("unbanip", new UnbanIpCommand(server));
+        commandManager.register("historico", new HistoricoCommand(server));
 
         // Novos comandos
         commandManager.register("motd", new MOTDCommand(motdManager));
@@ -207,14 +220,6 @@ public class HowlyVelocity {
             logger.error("Erro ao salvar medalhas: " + e.getMessage());
         }
 
-        try {
-            if (ignoreManager != null) {
-                ignoreManager.saveIgnoreData();
-            }
-        } catch (Exception e) {
-            logger.error("Erro ao salvar dados de ignore: " + e.getMessage());
-        }
-
         try {
             if (motdManager != null) {
                 motdManager.saveMotd();
@@ -231,6 +236,14 @@ public class HowlyVelocity {
             logger.error("Erro ao finalizar PlaytimeManager: " + e.getMessage());
         }
 
+        if (api != null) {
+            logger.info("Índice de punições: " + api.getPunishmentIndexStats());
+        }
+
+        if (playerDataManager != null) {
+            logger.info("Cache de identidades: " + playerDataManager.getIdentityCache().getStats());
+        }
+
         try {
             if (punishmentManager != null) {
                 punishmentManager.shutdown();
@@ -239,6 +252,14 @@ public class HowlyVelocity {
             logger.error("Erro ao finalizar PunishmentManager: " + e.getMessage());
         }
 
+        try {
+            if (databaseManager != null) {
+                databaseManager.drainPendingWrites(10, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            logger.error("Erro ao gravar escritas pendentes: " + e.getMessage());
+        }
+
         try {
             if (databaseManager != null) {
                 databaseManager.close();
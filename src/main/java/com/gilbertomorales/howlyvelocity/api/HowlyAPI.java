@@ -4,16 +4,29 @@ import com.gilbertomorales.howlyvelocity.HowlyVelocity;
 import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentAPI;
 import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentManager;
 
+import java.util.concurrent.TimeUnit;
+
 public class HowlyAPI {
 
+    // Atraso máximo para uma punição feita em outro proxy valer neste
+    private static final long INDEX_REFRESH_SECONDS = 15;
+
     private static HowlyAPI instance;
     
     private final HowlyVelocity plugin;
-    private final PunishmentAPI punishmentAPI;
+    private final PunishmentManager punishmentManager;
 
     public HowlyAPI(HowlyVelocity plugin) {
         this.plugin = plugin;
-        this.punishmentAPI = new PunishmentManager(plugin.getDatabaseManager(), plugin.getServer());
+        PunishmentManager punishmentManager = new PunishmentManager(plugin.getDatabaseManager(), plugin.getPlayerDataManager(),
+                plugin.getServer(), plugin.getPunishmentManager());
+        punishmentManager.loadActivePunishments();
+        // Outros proxies no mesmo banco também punem e despunem: o índice em memória é relido periodicamente
+        plugin.getServer().getScheduler().buildTask(plugin, punishmentManager::refreshActivePunishments)
+                .delay(INDEX_REFRESH_SECONDS, TimeUnit.SECONDS)
+                .repeat(INDEX_REFRESH_SECONDS, TimeUnit.SECONDS)
+                .schedule();
+        this.punishmentManager = punishmentManager;
         instance = this;
     }
 
@@ -22,7 +35,14 @@ public class HowlyAPI {
     }
 
     public PunishmentAPI getPunishmentAPI() {
-        return punishmentAPI;
+        return punishmentManager;
+    }
+
+    /**
+     * Estatísticas do índice em memória de banimentos e mutes ativos
+     */
+    public String getPunishmentIndexStats() {
+        return punishmentManager.getIndexStats();
     }
 
     public HowlyVelocity getPlugin() {
@@ -0,0 +1,86 @@
+package com.gilbertomorales.howlyvelocity.api.punishment;
+
+public class IpBan {
+
+    private final int id;
+    private final String network;
+    private final String reason;
+    private final String punisher;
+    private final long createdAt;
+    private final Long expiresAt;
+    private boolean active;
+
+    public IpBan(int id, String network, String reason, String punisher,
+                 long createdAt, Long expiresAt, boolean active) {
+        this.id = id;
+        this.network = network;
+        this.reason = reason;
+        this.punisher = punisher;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.active = active;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Rede banida em notação CIDR (ex: 203.0.113.0/24 ou 203.0.113.7/32)
+     */
+    public String getNetwork() {
+        return network;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getPunisher() {
+        return punisher;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public boolean isPermanent() {
+        return expiresAt == null;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && System.currentTimeMillis() > expiresAt;
+    }
+
+    public long getRemainingTime() {
+        if (isPermanent()) {
+            return -1;
+        }
+        return Math.max(0, expiresAt - System.currentTimeMillis());
+    }
+
+    @Override
+    public String toString() {
+        return "IpBan{" +
+                "id=" + id +
+                ", network='" + network + '\'' +
+                ", reason='" + reason + '\'' +
+                ", punisher='" + punisher + '\'' +
+                ", createdAt=" + createdAt +
+                ", expiresAt=" + expiresAt +
+                ", active=" + active +
+                '}';
+    }
+}
@@ -0,0 +1,239 @@
+package com.gilbertomorales.howlyvelocity.api.punishment;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Árvore de prefixos binária (bit a bit) com os banimentos de IP e faixas CIDR.
+ * A busca percorre no máximo 32 (IPv4) ou 128 (IPv6) nós e devolve o banimento mais específico.
+ */
+public class IpBanTrie {
+
+    private static final Pattern IPV4_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6_LITERAL = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final Node ipv4Root = new Node();
+    private final Node ipv6Root = new Node();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Adiciona (ou substitui) o banimento de uma rede
+     * @return Banimento que existia para a mesma rede, ou null
+     */
+    public IpBan put(Cidr cidr, IpBan ban) {
+        lock.writeLock().lock();
+        try {
+            Node node = rootFor(cidr.address);
+            for (int bit = 0; bit < cidr.prefixLength; bit++) {
+                int branch = bitAt(cidr.address, bit);
+                if (node.children[branch] == null) {
+                    node.children[branch] = new Node();
+                }
+                node = node.children[branch];
+            }
+
+            IpBan previous = node.ban;
+            node.ban = ban;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove o banimento exato de uma rede (faixas maiores ou menores não são afetadas)
+     * @return Banimento removido, ou null
+     */
+    public IpBan remove(Cidr cidr) {
+        lock.writeLock().lock();
+        try {
+            Node node = rootFor(cidr.address);
+            for (int bit = 0; bit < cidr.prefixLength && node != null; bit++) {
+                node = node.children[bitAt(cidr.address, bit)];
+            }
+
+            if (node == null || node.ban == null) {
+                return null;
+            }
+
+            IpBan removed = node.ban;
+            node.ban = null;
+            size--;
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove o banimento da rede apenas se ainda for o informado (não foi substituído por um mais novo)
+     * @return Se o banimento foi removido
+     */
+    public boolean remove(Cidr cidr, IpBan expected) {
+        lock.writeLock().lock();
+        try {
+            Node node = rootFor(cidr.address);
+            for (int bit = 0; bit < cidr.prefixLength && node != null; bit++) {
+                node = node.children[bitAt(cidr.address, bit)];
+            }
+
+            if (node == null || node.ban != expected) {
+                return false;
+            }
+            node.ban = null;
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca o banimento mais específico que cobre o endereço, ignorando os expirados
+     */
+    public IpBan find(InetAddress address) {
+        byte[] bytes = address.getAddress();
+
+        lock.readLock().lock();
+        try {
+            Node node = rootFor(bytes);
+            IpBan match = null;
+            int totalBits = bytes.length * 8;
+
+            for (int bit = 0; node != null; bit++) {
+                if (node.ban != null && !node.ban.isExpired()) {
+                    match = node.ban;
+                }
+                if (bit == totalBits) {
+                    break;
+                }
+                node = node.children[bitAt(bytes, bit)];
+            }
+
+            return match;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ipv4Root.children[0] = ipv4Root.children[1] = null;
+            ipv4Root.ban = null;
+            ipv6Root.children[0] = ipv6Root.children[1] = null;
+            ipv6Root.ban = null;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Node rootFor(byte[] address) {
+        return address.length == 4 ? ipv4Root : ipv6Root;
+    }
+
+    private static int bitAt(byte[] address, int bit) {
+        return (address[bit >> 3] >> (7 - (bit & 7))) & 1;
+    }
+
+    private static class Node {
+        private final Node[] children = new Node[2];
+        private IpBan ban;
+    }
+
+    /**
+     * Rede em notação CIDR, com os bits de host zerados
+     */
+    public static class Cidr {
+        private final byte[] address;
+        private final int prefixLength;
+
+        private Cidr(byte[] address, int prefixLength) {
+            this.address = address;
+            this.prefixLength = prefixLength;
+        }
+
+        /**
+         * Interpreta um IP ("203.0.113.7") ou faixa ("203.0.113.0/24", "2001:db8::/32")
+         * @throws IllegalArgumentException se o texto não for um IP ou faixa válida
+         */
+        public static Cidr parse(String text) {
+            String value = text.trim();
+            String addressPart = value;
+            Integer prefix = null;
+
+            int slash = value.indexOf('/');
+            if (slash >= 0) {
+                addressPart = value.substring(0, slash);
+                try {
+                    prefix = Integer.parseInt(value.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Prefixo inválido: " + value);
+                }
+            }
+
+            // Aceitar apenas literais, para que InetAddress nunca faça uma consulta DNS
+            // (um IPv4 com octeto acima de 255, ex: 1.2.3.999, não é literal e seria resolvido como nome)
+            boolean ipv4 = IPV4_LITERAL.matcher(addressPart).matches();
+            if (!ipv4 && !IPV6_LITERAL.matcher(addressPart).matches()) {
+                throw new IllegalArgumentException("Endereço IP inválido: " + value);
+            }
+            if (ipv4) {
+                for (String octet : addressPart.split("\\.")) {
+                    if (Integer.parseInt(octet) > 255) {
+                        throw new IllegalArgumentException("Endereço IP inválido: " + value);
+                    }
+                }
+            }
+
+            byte[] bytes;
+            try {
+                bytes = InetAddress.getByName(addressPart).getAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Endereço IP inválido: " + value);
+            }
+
+            int maxPrefix = bytes.length * 8;
+            int prefixLength = prefix != null ? prefix : maxPrefix;
+            if (prefixLength < 0 || prefixLength > maxPrefix) {
+                throw new IllegalArgumentException("Prefixo inválido: " + value);
+            }
+
+            // Zerar os bits de host, para que 203.0.113.7/24 e 203.0.113.0/24 sejam a mesma rede
+            for (int bit = prefixLength; bit < maxPrefix; bit++) {
+                bytes[bit >> 3] &= (byte) ~(1 << (7 - (bit & 7)));
+            }
+
+            return new Cidr(bytes, prefixLength);
+        }
+
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+
+        @Override
+        public String toString() {
+            try {
+                return InetAddress.getByAddress(address).getHostAddress() + "/" + prefixLength;
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.gilbertomorales.howlyvelocity.api.punishment;
 
+import java.net.InetAddress;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -35,6 +37,26 @@ public interface PunishmentAPI {
      */
     CompletableFuture<Punishment> mutePlayer(UUID playerUUID, String reason, Long duration, String punisher);
 
+    /**
+     * Bane vários jogadores de uma vez, em uma única transação (ex: onda de banimentos do anti-cheat)
+     * @param playerUUIDs UUIDs dos jogadores (os não cadastrados são ignorados)
+     * @param reason Motivo do banimento
+     * @param duration Duração em milissegundos (null para permanente)
+     * @param punisher Nome do punidor
+     * @return CompletableFuture com as punições criadas, já com seus IDs
+     */
+    CompletableFuture<List<Punishment>> banPlayers(Collection<UUID> playerUUIDs, String reason, Long duration, String punisher);
+
+    /**
+     * Muta vários jogadores de uma vez, em uma única transação
+     * @param playerUUIDs UUIDs dos jogadores (os não cadastrados são ignorados)
+     * @param reason Motivo do mute
+     * @param duration Duração em milissegundos (null para permanente)
+     * @param punisher Nome do punidor
+     * @return CompletableFuture com as punições criadas, já com seus IDs
+     */
+    CompletableFuture<List<Punishment>> mutePlayers(Collection<UUID> playerUUIDs, String reason, Long duration, String punisher);
+
     /**
      * Remove o banimento de um jogador
      * @param playerUUID UUID do jogador
@@ -80,16 +102,63 @@ public interface PunishmentAPI {
     CompletableFuture<Punishment> getActiveMute(UUID playerUUID);
 
     /**
-     * Obtém todas as punições de um jogador
+     * Obtém todas as punições de um jogador (para históricos longos, prefira a versão paginada)
      * @param playerUUID UUID do jogador
      * @return CompletableFuture com a lista de punições
      */
     CompletableFuture<List<Punishment>> getPlayerPunishments(UUID playerUUID);
 
+    /**
+     * Obtém uma página do histórico de punições de um jogador, da mais recente para a mais antiga
+     * @param playerUUID UUID do jogador
+     * @param type Tipo de punição (null para todos)
+     * @param after Cursor da página anterior (null para a primeira página)
+     * @param pageSize Quantidade de punições por página
+     * @return CompletableFuture com a página de punições
+     */
+    CompletableFuture<PunishmentPage> getPlayerPunishments(UUID playerUUID, PunishmentType type,
+                                                           PunishmentPage.Cursor after, int pageSize);
+
+    /**
+     * Obtém uma página das punições aplicadas por um staff, da mais recente para a mais antiga
+     * @param punisher Nome de quem aplicou as punições
+     * @param type Tipo de punição (null para todos)
+     * @param after Cursor da página anterior (null para a primeira página)
+     * @param pageSize Quantidade de punições por página
+     * @return CompletableFuture com a página de punições
+     */
+    CompletableFuture<PunishmentPage> getPunishmentsByPunisher(String punisher, PunishmentType type,
+                                                               PunishmentPage.Cursor after, int pageSize);
+
     /**
      * Obtém uma punição pelo ID
      * @param punishmentId ID da punição
      * @return CompletableFuture com a punição ou null se não encontrada
      */
     CompletableFuture<Punishment> getPunishmentById(int punishmentId);
+
+    /**
+     * Bane um IP ou uma faixa de IPs
+     * @param network IP ("203.0.113.7") ou faixa CIDR ("203.0.113.0/24", "2001:db8::/32")
+     * @param reason Motivo do banimento
+     * @param duration Duração em milissegundos (null para permanente)
+     * @param punisher Nome do punidor
+     * @return CompletableFuture com o banimento, ou com IllegalArgumentException se a rede for inválida
+     */
+    CompletableFuture<IpBan> banIp(String network, String reason, Long duration, String punisher);
+
+    /**
+     * Remove o banimento de um IP ou faixa (precisa ser a mesma rede que foi banida)
+     * @param network IP ou faixa CIDR
+     * @param unbanner Nome de quem removeu o ban
+     * @return CompletableFuture com o resultado
+     */
+    CompletableFuture<Boolean> unbanIp(String network, String unbanner);
+
+    /**
+     * Obtém o banimento de IP mais específico que cobre o endereço
+     * @param address Endereço da conexão
+     * @return CompletableFuture com o banimento ou null se o endereço não estiver banido
+     */
+    CompletableFuture<IpBan> getActiveIpBan(InetAddress address);
 }
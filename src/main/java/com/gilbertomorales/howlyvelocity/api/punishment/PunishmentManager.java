@@ -1,59 +1,217 @@
 package com.gilbertomorales.howlyvelocity.api.punishment;
 
+import com.gilbertomorales.howlyvelocity.api.punishment.events.PunishmentBatchEvent;
 import com.gilbertomorales.howlyvelocity.api.punishment.events.PunishmentEvent;
+import com.gilbertomorales.howlyvelocity.api.punishment.events.PunishmentExpiredEvent;
 import com.gilbertomorales.howlyvelocity.managers.DatabaseManager;
+import com.gilbertomorales.howlyvelocity.managers.DatabasePriority;
+import com.gilbertomorales.howlyvelocity.managers.PlayerDataManager;
 import com.gilbertomorales.howlyvelocity.utils.TimeUtils;
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 
+import java.net.InetAddress;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PunishmentManager implements PunishmentAPI {
 
+    // Estimativa grosseira por entrada do índice: nó do mapa + UUID + Punishment com motivo e autor curtos
+    private static final int ESTIMATED_ENTRY_BYTES = 256;
+    private static final int MAX_PAGE_SIZE = 50;
+    // 7 parâmetros por linha, abaixo do limite de parâmetros por comando do SQLite
+    private static final int MAX_BATCH_ROWS = 100;
+
+    // O UUID fica apenas em players; as punições referenciam o jogador pelo ID
+    private static final String SELECT_PUNISHMENTS = "SELECT pu.id, pu.type, pu.reason, pu.punisher, pu.created_at, " +
+            "pu.expires_at, pu.active, p.uuid AS player_uuid FROM punishments pu JOIN players p ON p.id = pu.player_id ";
+
     private final DatabaseManager databaseManager;
+    private final PlayerDataManager playerDataManager;
     private final ProxyServer server;
+    private final com.gilbertomorales.howlyvelocity.managers.PunishmentManager expiryScheduler;
+
+    // Índice em memória das punições ativas (UUID -> punição), fonte de verdade para chat e login
+    private final Map<UUID, Punishment> activeBans = new ConcurrentHashMap<>();
+    private final Map<UUID, Punishment> activeMutes = new ConcurrentHashMap<>();
+
+    // Banimentos de IP e faixas CIDR, consultados no PreLoginEvent antes da autenticação
+    private volatile IpBanTrie ipBans = new IpBanTrie();
 
-    public PunishmentManager(DatabaseManager databaseManager, ProxyServer server) {
+    // Alterações locais do índice contam uma versão, para que a releitura periódica não desfaça uma alteração
+    // feita enquanto lia o banco
+    private final Object indexLock = new Object();
+    private final AtomicLong indexVersion = new AtomicLong();
+
+    // Métricas do índice de banimentos consultado no login
+    private final AtomicLong banChecks = new AtomicLong();
+    private final AtomicLong ipBanChecks = new AtomicLong();
+    private final AtomicLong ipBanHits = new AtomicLong();
+    private final AtomicLong banHits = new AtomicLong();
+
+    public PunishmentManager(DatabaseManager databaseManager, PlayerDataManager playerDataManager, ProxyServer server,
+                             com.gilbertomorales.howlyvelocity.managers.PunishmentManager expiryScheduler) {
         this.databaseManager = databaseManager;
+        this.playerDataManager = playerDataManager;
         this.server = server;
+        this.expiryScheduler = expiryScheduler;
+        this.expiryScheduler.setExpiryListener(this::onPunishmentExpired);
+        this.expiryScheduler.setIpBanExpiryListener(this::onIpBanExpired);
+    }
+
+    /**
+     * Carrega os banimentos e mutes ativos do banco de dados para o índice em memória
+     */
+    public void loadActivePunishments() {
+        try (Connection connection = databaseManager.getConnection()) {
+            List<Punishment> punishments = readActivePunishments(connection);
+            List<IpBan> activeIpBans = readActiveIpBans(connection);
+            synchronized (indexLock) {
+                applySnapshot(punishments, activeIpBans);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar punições ativas", e);
+        }
+    }
+
+    /**
+     * Relê as punições ativas para enxergar banimentos e desbanimentos feitos por outros proxies no mesmo banco.
+     * Se o índice mudar aqui durante a leitura, a rodada é descartada e a próxima relê tudo
+     */
+    public void refreshActivePunishments() {
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
+            long version = indexVersion.get();
+            try (Connection connection = databaseManager.getConnection()) {
+                List<Punishment> punishments = readActivePunishments(connection);
+                List<IpBan> activeIpBans = readActiveIpBans(connection);
+
+                synchronized (indexLock) {
+                    if (indexVersion.get() == version) {
+                        applySnapshot(punishments, activeIpBans);
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private List<Punishment> readActivePunishments(Connection connection) throws SQLException {
+        String sql = SELECT_PUNISHMENTS + "WHERE pu.active = ? AND pu.type IN ('BAN', 'MUTE') " +
+                   "AND (pu.expires_at IS NULL OR pu.expires_at > ?) ORDER BY pu.created_at ASC";
+        List<Punishment> punishments = new ArrayList<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setBoolean(1, true);
+            stmt.setLong(2, System.currentTimeMillis());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    punishments.add(createPunishmentFromResultSet(rs));
+                }
+            }
+        }
+
+        return punishments;
+    }
+
+    private List<IpBan> readActiveIpBans(Connection connection) throws SQLException {
+        String sql = "SELECT id, network, reason, punisher, created_at, expires_at, active FROM ip_bans " +
+                "WHERE active = ? AND (expires_at IS NULL OR expires_at > ?)";
+        List<IpBan> activeIpBans = new ArrayList<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setBoolean(1, true);
+            stmt.setLong(2, System.currentTimeMillis());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    activeIpBans.add(createIpBanFromResultSet(rs));
+                }
+            }
+        }
+
+        return activeIpBans;
+    }
+
+    // Chamado com indexLock; altera só o que mudou, para não perder os agendamentos de expiração
+    private void applySnapshot(List<Punishment> punishments, List<IpBan> activeIpBans) {
+        Map<UUID, Punishment> bans = new HashMap<>();
+        Map<UUID, Punishment> mutes = new HashMap<>();
+        for (Punishment punishment : punishments) {
+            // Ordenado por data, então a punição mais recente sobrescreve as anteriores
+            (punishment.getType() == PunishmentType.BAN ? bans : mutes).put(punishment.getPlayerUUID(), punishment);
+        }
+
+        syncIndex(PunishmentType.BAN, bans);
+        syncIndex(PunishmentType.MUTE, mutes);
+
+        // Banimentos de IP já agendados são ignorados pelo agendador; os que sumiram daqui
+        // apenas expiram sem efeito, pois a remoção da árvore é condicional
+        IpBanTrie trie = new IpBanTrie();
+        for (IpBan ban : activeIpBans) {
+            trie.put(IpBanTrie.Cidr.parse(ban.getNetwork()), ban);
+            expiryScheduler.scheduleIpBanExpiry(ban);
+        }
+        ipBans = trie;
+    }
+
+    private void syncIndex(PunishmentType type, Map<UUID, Punishment> current) {
+        Map<UUID, Punishment> index = indexFor(type);
+
+        for (UUID playerUUID : new ArrayList<>(index.keySet())) {
+            if (!current.containsKey(playerUUID)) {
+                removeActivePunishment(playerUUID, type);
+            }
+        }
+
+        for (Punishment punishment : current.values()) {
+            Punishment indexed = index.get(punishment.getPlayerUUID());
+            if (indexed != null && indexed.getId() == punishment.getId()) {
+                continue;
+            }
+
+            indexActivePunishment(punishment);
+            // Banido por outro proxy enquanto estava conectado aqui
+            if (type == PunishmentType.BAN) {
+                server.getPlayer(punishment.getPlayerUUID())
+                        .ifPresent(target -> target.disconnect(formatBanMessage(punishment)));
+            }
+        }
     }
 
     @Override
     public CompletableFuture<Punishment> banPlayer(UUID playerUUID, String reason, Long duration, String punisher) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try {
                 // Desativar bans anteriores
                 deactivatePunishments(playerUUID, PunishmentType.BAN);
                 
                 // Criar novo ban
                 Punishment punishment = createPunishment(playerUUID, PunishmentType.BAN, reason, duration, punisher);
+                indexActivePunishment(punishment);
                 
                 // Kickar jogador se estiver online
                 Optional<Player> player = server.getPlayer(playerUUID);
-                if (player.isPresent()) {
-                    String timeText = (duration == null) ? "Permanente" : TimeUtils.formatDuration(duration);
+                player.ifPresent(target -> target.disconnect(formatBanMessage(punishment)));
 
-                    String message = "§c§lHOWLY" + "\n" +
-                            "§cVocê está suspenso do servidor." + "\n\n" +
-                            "§fMotivo: §7" + reason + "\n" +
-                            "§fAutor: §7" + punisher + "\n" +
-                            "§fTempo restante: §7" + timeText + "\n\n" +
-                            "§eUse o ID #" + punishment.getId() + " para criar uma revisão em §ndiscord.gg/howly§e.";
-
-                    player.get().disconnect(LegacyComponentSerializer.legacySection().deserialize(message));
-                }
-
-                
                 // Disparar evento
                 server.getEventManager().fireAndForget(new PunishmentEvent(punishment));
                 
@@ -67,7 +225,7 @@ public class PunishmentManager implements PunishmentAPI {
 
     @Override
     public CompletableFuture<Punishment> kickPlayer(UUID playerUUID, String reason, String punisher) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try {
 
                 Punishment punishment = createPunishment(playerUUID, PunishmentType.KICK, reason, null, punisher);
@@ -96,26 +254,18 @@ public class PunishmentManager implements PunishmentAPI {
 
     @Override
     public CompletableFuture<Punishment> mutePlayer(UUID playerUUID, String reason, Long duration, String punisher) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try {
                 // Desativar mutes anteriores
                 deactivatePunishments(playerUUID, PunishmentType.MUTE);
                 
                 // Criar novo mute
                 Punishment punishment = createPunishment(playerUUID, PunishmentType.MUTE, reason, duration, punisher);
+                indexActivePunishment(punishment);
                 
                 // Notificar jogador se estiver online
                 Optional<Player> player = server.getPlayer(playerUUID);
-                if (player.isPresent()) {
-                    String timeRemaining = duration == null ? "Permanente" : TimeUtils.formatDuration(duration);
-                    String message = "\n§cVocê foi silenciado.\n\n" +
-                            "§fMotivo: §7" + reason + "\n" +
-                            "§fAutor: §7" + punisher + "\n" +
-                            "§fTempo restante: §7" + timeRemaining + "\n\n" +
-                            "§eVocê pode apelar no nosso discord §ndiscord.gg/howly§e.\n";
-
-                    player.get().sendMessage(Component.text(message));
-                }
+                player.ifPresent(target -> target.sendMessage(formatMuteMessage(punishment)));
                 
                 // Disparar evento
                 server.getEventManager().fireAndForget(new PunishmentEvent(punishment));
@@ -128,11 +278,58 @@ public class PunishmentManager implements PunishmentAPI {
         });
     }
 
+    @Override
+    public CompletableFuture<List<Punishment>> banPlayers(Collection<UUID> playerUUIDs, String reason, Long duration, String punisher) {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
+            try {
+                List<Punishment> punishments = createPunishments(playerUUIDs, PunishmentType.BAN, reason, duration, punisher);
+
+                // Indexar e desconectar os alvos online em uma única passada
+                for (Punishment punishment : punishments) {
+                    indexActivePunishment(punishment);
+                    server.getPlayer(punishment.getPlayerUUID())
+                            .ifPresent(target -> target.disconnect(formatBanMessage(punishment)));
+                }
+
+                server.getEventManager().fireAndForget(new PunishmentBatchEvent(PunishmentType.BAN, punishments));
+
+                return punishments;
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao banir jogadores", e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> mutePlayers(Collection<UUID> playerUUIDs, String reason, Long duration, String punisher) {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
+            try {
+                List<Punishment> punishments = createPunishments(playerUUIDs, PunishmentType.MUTE, reason, duration, punisher);
+
+                for (Punishment punishment : punishments) {
+                    indexActivePunishment(punishment);
+                    server.getPlayer(punishment.getPlayerUUID())
+                            .ifPresent(target -> target.sendMessage(formatMuteMessage(punishment)));
+                }
+
+                server.getEventManager().fireAndForget(new PunishmentBatchEvent(PunishmentType.MUTE, punishments));
+
+                return punishments;
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao silenciar jogadores", e);
+            }
+        });
+    }
+
     @Override
     public CompletableFuture<Boolean> unbanPlayer(UUID playerUUID, String unbanner) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try {
-                return deactivatePunishments(playerUUID, PunishmentType.BAN) > 0;
+                int deactivated = deactivatePunishments(playerUUID, PunishmentType.BAN);
+                removeActivePunishment(playerUUID, PunishmentType.BAN);
+                return deactivated > 0;
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao desbanir jogador", e);
             }
@@ -141,9 +338,11 @@ public class PunishmentManager implements PunishmentAPI {
 
     @Override
     public CompletableFuture<Boolean> unmutePlayer(UUID playerUUID, String unmuter) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try {
-                return deactivatePunishments(playerUUID, PunishmentType.MUTE) > 0;
+                int deactivated = deactivatePunishments(playerUUID, PunishmentType.MUTE);
+                removeActivePunishment(playerUUID, PunishmentType.MUTE);
+                return deactivated > 0;
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao desmutar jogador", e);
             }
@@ -164,7 +363,12 @@ public class PunishmentManager implements PunishmentAPI {
 
     @Override
     public CompletableFuture<Punishment> getActiveBan(UUID playerUUID) {
-        return getActivePunishment(playerUUID, PunishmentType.BAN);
+        banChecks.incrementAndGet();
+        Punishment punishment = getIndexedPunishment(playerUUID, PunishmentType.BAN);
+        if (punishment != null) {
+            banHits.incrementAndGet();
+        }
+        return CompletableFuture.completedFuture(punishment);
     }
 
     @Override
@@ -174,14 +378,19 @@ public class PunishmentManager implements PunishmentAPI {
 
     @Override
     public CompletableFuture<List<Punishment>> getPlayerPunishments(UUID playerUUID) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             List<Punishment> punishments = new ArrayList<>();
             
             try (Connection connection = databaseManager.getConnection()) {
-                String sql = "SELECT * FROM punishments WHERE player_uuid = ? ORDER BY created_at DESC";
+                int playerId = playerDataManager.resolvePlayerId(connection, playerUUID);
+                if (playerId < 0) {
+                    return punishments;
+                }
+
+                String sql = SELECT_PUNISHMENTS + "WHERE pu.player_id = ? ORDER BY pu.created_at DESC";
                 
                 try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, playerUUID.toString());
+                    stmt.setInt(1, playerId);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
                         while (rs.next()) {
@@ -198,39 +407,205 @@ public class PunishmentManager implements PunishmentAPI {
     }
 
     @Override
-    public CompletableFuture<Punishment> getPunishmentById(int punishmentId) {
-        return CompletableFuture.supplyAsync(() -> {
+    public CompletableFuture<PunishmentPage> getPlayerPunishments(UUID playerUUID, PunishmentType type,
+                                                                  PunishmentPage.Cursor after, int pageSize) {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection connection = databaseManager.getConnection()) {
-                String sql = "SELECT * FROM punishments WHERE id = ?";
-                
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setInt(1, punishmentId);
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            return createPunishmentFromResultSet(rs);
-                        }
+                int playerId = playerDataManager.resolvePlayerId(connection, playerUUID);
+                if (playerId < 0) {
+                    return new PunishmentPage(new ArrayList<>(), null);
+                }
+
+                return queryPage(connection, "pu.player_id = ?", playerId, type, after, pageSize);
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao buscar punições do jogador", e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<PunishmentPage> getPunishmentsByPunisher(String punisher, PunishmentType type,
+                                                                      PunishmentPage.Cursor after, int pageSize) {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
+            try (Connection connection = databaseManager.getConnection()) {
+                return queryPage(connection, "pu.punisher = ?", punisher, type, after, pageSize);
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao buscar punições aplicadas", e);
+            }
+        });
+    }
+
+    /**
+     * Busca uma página por keyset (created_at, id): o banco salta direto para o cursor pelo índice,
+     * sem OFFSET e sem ler as páginas anteriores
+     */
+    private PunishmentPage queryPage(Connection connection, String filter, Object filterValue, PunishmentType type,
+                                     PunishmentPage.Cursor after, int pageSize) throws SQLException {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+
+        StringBuilder sql = new StringBuilder(SELECT_PUNISHMENTS).append("WHERE ").append(filter);
+        if (type != null) {
+            sql.append(" AND pu.type = ?");
+        }
+        if (after != null) {
+            sql.append(" AND (pu.created_at < ? OR (pu.created_at = ? AND pu.id < ?))");
+        }
+        // Uma linha a mais indica se existe próxima página
+        sql.append(" ORDER BY pu.created_at DESC, pu.id DESC LIMIT ").append(limit + 1);
+
+        List<Punishment> punishments = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            stmt.setObject(index++, filterValue);
+            if (type != null) {
+                stmt.setString(index++, type.name());
+            }
+            if (after != null) {
+                stmt.setLong(index++, after.getCreatedAt());
+                stmt.setLong(index++, after.getCreatedAt());
+                stmt.setInt(index, after.getId());
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next() && punishments.size() <= limit) {
+                    punishments.add(createPunishmentFromResultSet(rs));
+                }
+            }
+        }
+
+        if (punishments.size() <= limit) {
+            return new PunishmentPage(punishments, null);
+        }
+
+        punishments.remove(limit);
+        return new PunishmentPage(punishments, PunishmentPage.Cursor.after(punishments.get(limit - 1)));
+    }
+
+    @Override
+    public CompletableFuture<IpBan> banIp(String network, String reason, Long duration, String punisher) {
+        IpBanTrie.Cidr cidr;
+        try {
+            cidr = IpBanTrie.Cidr.parse(network);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
+            try (Connection connection = databaseManager.getConnection()) {
+                // Desativar ban anterior da mesma rede
+                deactivateIpBans(connection, cidr.toString());
+
+                IpBan ban = createIpBan(connection, cidr.toString(), reason, duration, punisher);
+                synchronized (indexLock) {
+                    indexVersion.incrementAndGet();
+                    IpBan previous = ipBans.put(cidr, ban);
+                    if (previous != null) {
+                        expiryScheduler.cancelIpBanExpiry(previous.getId());
+                    }
+                    expiryScheduler.scheduleIpBanExpiry(ban);
+                }
+
+                // Desconectar jogadores online dentro da faixa
+                for (Player player : server.getAllPlayers()) {
+                    if (ipBans.find(player.getRemoteAddress().getAddress()) == ban) {
+                        player.disconnect(LegacyComponentSerializer.legacySection().deserialize(formatIpBanMessage(ban)));
                     }
                 }
+
+                return ban;
             } catch (SQLException e) {
-                throw new RuntimeException("Erro ao buscar punição", e);
+                throw new RuntimeException("Erro ao banir IP", e);
             }
-            
-            return null;
         });
     }
 
-    private CompletableFuture<Punishment> getActivePunishment(UUID playerUUID, PunishmentType type) {
-        return CompletableFuture.supplyAsync(() -> {
+    @Override
+    public CompletableFuture<Boolean> unbanIp(String network, String unbanner) {
+        IpBanTrie.Cidr cidr;
+        try {
+            cidr = IpBanTrie.Cidr.parse(network);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
+            try (Connection connection = databaseManager.getConnection()) {
+                int deactivated = deactivateIpBans(connection, cidr.toString());
+                synchronized (indexLock) {
+                    indexVersion.incrementAndGet();
+                    IpBan removed = ipBans.remove(cidr);
+                    if (removed != null) {
+                        expiryScheduler.cancelIpBanExpiry(removed.getId());
+                    }
+                }
+                return deactivated > 0;
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao desbanir IP", e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<IpBan> getActiveIpBan(InetAddress address) {
+        // Consulta apenas a árvore em memória, sem acessar o banco de dados
+        ipBanChecks.incrementAndGet();
+        IpBan ban = ipBans.find(address);
+        if (ban != null) {
+            ipBanHits.incrementAndGet();
+        }
+        return CompletableFuture.completedFuture(ban);
+    }
+
+    // Mensagem de desconexão exibida ao jogador banido
+    private static Component formatBanMessage(Punishment punishment) {
+        String timeText = punishment.isPermanent() ? "Permanente"
+                : TimeUtils.formatDuration(punishment.getExpiresAt() - punishment.getCreatedAt());
+
+        String message = "§c§lHOWLY" + "\n" +
+                "§cVocê está suspenso do servidor." + "\n\n" +
+                "§fMotivo: §7" + punishment.getReason() + "\n" +
+                "§fAutor: §7" + punishment.getPunisher() + "\n" +
+                "§fTempo restante: §7" + timeText + "\n\n" +
+                "§eUse o ID #" + punishment.getId() + " para criar uma revisão em §ndiscord.gg/howly§e.";
+
+        return LegacyComponentSerializer.legacySection().deserialize(message);
+    }
+
+    // Mensagem enviada ao jogador quando é silenciado
+    private static Component formatMuteMessage(Punishment punishment) {
+        String timeRemaining = punishment.isPermanent() ? "Permanente"
+                : TimeUtils.formatDuration(punishment.getExpiresAt() - punishment.getCreatedAt());
+
+        String message = "\n§cVocê foi silenciado.\n\n" +
+                "§fMotivo: §7" + punishment.getReason() + "\n" +
+                "§fAutor: §7" + punishment.getPunisher() + "\n" +
+                "§fTempo restante: §7" + timeRemaining + "\n\n" +
+                "§eVocê pode apelar no nosso discord §ndiscord.gg/howly§e.\n";
+
+        return Component.text(message);
+    }
+
+    /**
+     * Mensagem exibida a quem se conecta de um IP banido
+     */
+    public static String formatIpBanMessage(IpBan ban) {
+        String timeText = ban.isPermanent() ? "Permanente" : TimeUtils.formatDuration(ban.getRemainingTime());
+        return "§c§lHOWLY" + "\n" +
+                "§cSeu endereço está suspenso do servidor." + "\n\n" +
+                "§fMotivo: §7" + ban.getReason() + "\n" +
+                "§fAutor: §7" + ban.getPunisher() + "\n" +
+                "§fTempo restante: §7" + timeText + "\n\n" +
+                "§eUse o ID #" + ban.getId() + " para criar uma revisão em §ndiscord.gg/howly§e.";
+    }
+
+    @Override
+    public CompletableFuture<Punishment> getPunishmentById(int punishmentId) {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection connection = databaseManager.getConnection()) {
-                String sql = "SELECT * FROM punishments WHERE player_uuid = ? AND type = ? AND active = ? " +
-                           "AND (expires_at IS NULL OR expires_at > ?) ORDER BY created_at DESC LIMIT 1";
+                String sql = SELECT_PUNISHMENTS + "WHERE pu.id = ?";
                 
                 try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, playerUUID.toString());
-                    stmt.setString(2, type.name());
-                    stmt.setBoolean(3, true);
-                    stmt.setLong(4, System.currentTimeMillis());
+                    stmt.setInt(1, punishmentId);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
                         if (rs.next()) {
@@ -239,24 +614,107 @@ public class PunishmentManager implements PunishmentAPI {
                     }
                 }
             } catch (SQLException e) {
-                throw new RuntimeException("Erro ao buscar punição ativa", e);
+                throw new RuntimeException("Erro ao buscar punição", e);
             }
             
             return null;
         });
     }
 
+    private CompletableFuture<Punishment> getActivePunishment(UUID playerUUID, PunishmentType type) {
+        // Consulta apenas o índice em memória, sem acessar o banco de dados
+        return CompletableFuture.completedFuture(getIndexedPunishment(playerUUID, type));
+    }
+
+    /**
+     * Estatísticas do índice de punições ativas, para acompanhar ondas de login
+     */
+    public String getIndexStats() {
+        int entries = activeBans.size() + activeMutes.size();
+        // A memória é uma estimativa grosseira, não uma medição
+        return "bans ativos=" + activeBans.size() +
+                ", mutes ativos=" + activeMutes.size() +
+                ", memória estimada=~" + (entries * ESTIMATED_ENTRY_BYTES / 1024) + "KB" +
+                ", consultas de ban=" + banChecks.get() +
+                ", banidos barrados=" + banHits.get() +
+                ", bans de IP=" + ipBans.size() +
+                ", consultas de IP=" + ipBanChecks.get() +
+                ", IPs barrados=" + ipBanHits.get();
+    }
+
+    private Punishment getIndexedPunishment(UUID playerUUID, PunishmentType type) {
+        Map<UUID, Punishment> index = indexFor(type);
+        Punishment punishment = index.get(playerUUID);
+
+        if (punishment != null && punishment.isExpired()) {
+            // Expirou mas o agendador ainda não processou, ele removerá do índice
+            return null;
+        }
+
+        return punishment;
+    }
+
+    private void indexActivePunishment(Punishment punishment) {
+        synchronized (indexLock) {
+            indexVersion.incrementAndGet();
+            Punishment previous = indexFor(punishment.getType()).put(punishment.getPlayerUUID(), punishment);
+            if (previous != null) {
+                expiryScheduler.cancelExpiry(previous.getId());
+            }
+            expiryScheduler.scheduleExpiry(punishment);
+        }
+    }
+
+    private void removeActivePunishment(UUID playerUUID, PunishmentType type) {
+        synchronized (indexLock) {
+            indexVersion.incrementAndGet();
+            Punishment removed = indexFor(type).remove(playerUUID);
+            if (removed != null) {
+                expiryScheduler.cancelExpiry(removed.getId());
+            }
+        }
+    }
+
+    private void onPunishmentExpired(Punishment punishment) {
+        // Só notificar se a punição ainda era a ativa (não foi substituída nem removida)
+        boolean removed;
+        synchronized (indexLock) {
+            indexVersion.incrementAndGet();
+            removed = indexFor(punishment.getType()).remove(punishment.getPlayerUUID(), punishment);
+        }
+        if (removed) {
+            server.getEventManager().fireAndForget(new PunishmentExpiredEvent(punishment));
+        }
+    }
+
+    private void onIpBanExpired(IpBan ban) {
+        // Remove só se o banimento ainda for o ativo da rede
+        synchronized (indexLock) {
+            indexVersion.incrementAndGet();
+            ipBans.remove(IpBanTrie.Cidr.parse(ban.getNetwork()), ban);
+        }
+    }
+
+    private Map<UUID, Punishment> indexFor(PunishmentType type) {
+        return type == PunishmentType.BAN ? activeBans : activeMutes;
+    }
+
     private Punishment createPunishment(UUID playerUUID, PunishmentType type, String reason, 
                                       Long duration, String punisher) throws SQLException {
         try (Connection connection = databaseManager.getConnection()) {
-            String sql = "INSERT INTO punishments (player_uuid, type, reason, punisher, created_at, expires_at, active) " +
+            int playerId = playerDataManager.resolvePlayerId(connection, playerUUID);
+            if (playerId < 0) {
+                throw new SQLException("Jogador não encontrado: " + playerUUID);
+            }
+
+            String sql = "INSERT INTO punishments (player_id, type, reason, punisher, created_at, expires_at, active) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?)";
             
             long createdAt = System.currentTimeMillis();
             Long expiresAt = duration != null ? createdAt + duration : null;
             
             try (PreparedStatement stmt = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-                stmt.setString(1, playerUUID.toString());
+                stmt.setInt(1, playerId);
                 stmt.setString(2, type.name());
                 stmt.setString(3, reason);
                 stmt.setString(4, punisher);
@@ -282,13 +740,106 @@ public class PunishmentManager implements PunishmentAPI {
         throw new SQLException("Falha ao criar punição");
     }
 
+    /**
+     * Cria a mesma punição para vários jogadores: um UPDATE e um INSERT de várias linhas por lote, tudo em uma transação
+     */
+    private List<Punishment> createPunishments(Collection<UUID> playerUUIDs, PunishmentType type, String reason,
+                                               Long duration, String punisher) throws SQLException {
+        long createdAt = System.currentTimeMillis();
+        Long expiresAt = duration != null ? createdAt + duration : null;
+        List<Punishment> punishments = new ArrayList<>();
+
+        try (Connection connection = databaseManager.getConnection()) {
+            Map<UUID, Integer> playerIds = playerDataManager.resolvePlayerIds(connection, new LinkedHashSet<>(playerUUIDs));
+            List<Map.Entry<UUID, Integer>> targets = new ArrayList<>(playerIds.entrySet());
+
+            connection.setAutoCommit(false);
+            try {
+                for (int start = 0; start < targets.size(); start += MAX_BATCH_ROWS) {
+                    List<Map.Entry<UUID, Integer>> chunk = targets.subList(start, Math.min(start + MAX_BATCH_ROWS, targets.size()));
+                    String inList = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+                    // Desativar as punições anteriores do mesmo tipo
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "UPDATE punishments SET active = ? WHERE type = ? AND active = ? AND player_id IN (" + inList + ")")) {
+                        stmt.setBoolean(1, false);
+                        stmt.setString(2, type.name());
+                        stmt.setBoolean(3, true);
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setInt(i + 4, chunk.get(i).getValue());
+                        }
+                        stmt.executeUpdate();
+                    }
+
+                    String sql = "INSERT INTO punishments (player_id, type, reason, punisher, created_at, expires_at, active) VALUES " +
+                            String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?, ?, ?)"));
+
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        int index = 1;
+                        for (Map.Entry<UUID, Integer> target : chunk) {
+                            stmt.setInt(index++, target.getValue());
+                            stmt.setString(index++, type.name());
+                            stmt.setString(index++, reason);
+                            stmt.setString(index++, punisher);
+                            stmt.setLong(index++, createdAt);
+                            if (expiresAt != null) {
+                                stmt.setLong(index++, expiresAt);
+                            } else {
+                                stmt.setNull(index++, java.sql.Types.BIGINT);
+                            }
+                            stmt.setBoolean(index++, true);
+                        }
+                        stmt.executeUpdate();
+                    }
+
+                    // O SQLite só devolve a última chave gerada; dentro da transação a única punição ativa
+                    // desse tipo de cada jogador é a recém-criada, então os IDs são lidos pelo índice de ativas
+                    Map<Integer, UUID> uuidsById = new HashMap<>();
+                    chunk.forEach(target -> uuidsById.put(target.getValue(), target.getKey()));
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT id, player_id FROM punishments WHERE player_id IN (" + inList + ") AND type = ? AND active = ?")) {
+                        int index = 1;
+                        for (Map.Entry<UUID, Integer> target : chunk) {
+                            stmt.setInt(index++, target.getValue());
+                        }
+                        stmt.setString(index++, type.name());
+                        stmt.setBoolean(index, true);
+
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                UUID playerUUID = uuidsById.get(rs.getInt("player_id"));
+                                punishments.add(new Punishment(rs.getInt("id"), playerUUID, type, reason, punisher,
+                                        createdAt, expiresAt, true));
+                            }
+                        }
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        return punishments;
+    }
+
     private int deactivatePunishments(UUID playerUUID, PunishmentType type) throws SQLException {
         try (Connection connection = databaseManager.getConnection()) {
-            String sql = "UPDATE punishments SET active = ? WHERE player_uuid = ? AND type = ? AND active = ?";
+            int playerId = playerDataManager.resolvePlayerId(connection, playerUUID);
+            if (playerId < 0) {
+                return 0;
+            }
+
+            String sql = "UPDATE punishments SET active = ? WHERE player_id = ? AND type = ? AND active = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
                 stmt.setBoolean(1, false);
-                stmt.setString(2, playerUUID.toString());
+                stmt.setInt(2, playerId);
                 stmt.setString(3, type.name());
                 stmt.setBoolean(4, true);
                 
@@ -297,9 +848,63 @@ public class PunishmentManager implements PunishmentAPI {
         }
     }
 
+    private IpBan createIpBan(Connection connection, String network, String reason,
+                              Long duration, String punisher) throws SQLException {
+        String sql = "INSERT INTO ip_bans (network, reason, punisher, created_at, expires_at, active) VALUES (?, ?, ?, ?, ?, ?)";
+
+        long createdAt = System.currentTimeMillis();
+        Long expiresAt = duration != null ? createdAt + duration : null;
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, network);
+            stmt.setString(2, reason);
+            stmt.setString(3, punisher);
+            stmt.setLong(4, createdAt);
+            if (expiresAt != null) {
+                stmt.setLong(5, expiresAt);
+            } else {
+                stmt.setNull(5, java.sql.Types.BIGINT);
+            }
+            stmt.setBoolean(6, true);
+
+            stmt.executeUpdate();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return new IpBan(rs.getInt(1), network, reason, punisher, createdAt, expiresAt, true);
+                }
+            }
+        }
+
+        throw new SQLException("Falha ao criar banimento de IP");
+    }
+
+    private int deactivateIpBans(Connection connection, String network) throws SQLException {
+        String sql = "UPDATE ip_bans SET active = ? WHERE network = ? AND active = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setBoolean(1, false);
+            stmt.setString(2, network);
+            stmt.setBoolean(3, true);
+
+            return stmt.executeUpdate();
+        }
+    }
+
+    private IpBan createIpBanFromResultSet(ResultSet rs) throws SQLException {
+        return new IpBan(
+                rs.getInt("id"),
+                rs.getString("network"),
+                rs.getString("reason"),
+                rs.getString("punisher"),
+                rs.getLong("created_at"),
+                rs.getObject("expires_at", Long.class),
+                rs.getBoolean("active"));
+    }
+
     private Punishment createPunishmentFromResultSet(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
-        UUID playerUUID = UUID.fromString(rs.getString("player_uuid"));
+        UUID playerUUID = UuidCodec.get(rs, "player_uuid");
         PunishmentType type = PunishmentType.valueOf(rs.getString("type"));
         String reason = rs.getString("reason");
         String punisher = rs.getString("punisher");
@@ -0,0 +1,81 @@
+package com.gilbertomorales.howlyvelocity.api.punishment;
+
+import java.util.List;
+
+/**
+ * Uma página do histórico de punições, da mais recente para a mais antiga
+ */
+public class PunishmentPage {
+
+    private final List<Punishment> punishments;
+    private final Cursor nextCursor;
+
+    public PunishmentPage(List<Punishment> punishments, Cursor nextCursor) {
+        this.punishments = punishments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Punishment> getPunishments() {
+        return punishments;
+    }
+
+    /**
+     * @return Cursor para buscar a próxima página, ou null se esta for a última
+     */
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Posição no histórico (data de criação e ID da última punição vista); a próxima página começa logo depois dela
+     */
+    public static class Cursor {
+        private final long createdAt;
+        private final int id;
+
+        public Cursor(long createdAt, int id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public static Cursor after(Punishment punishment) {
+            return new Cursor(punishment.getCreatedAt(), punishment.getId());
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Texto curto para ser repassado em comandos (ex: botão de próxima página)
+         */
+        public String encode() {
+            return Long.toString(createdAt, 36) + "-" + Integer.toString(id, 36);
+        }
+
+        /**
+         * @return Cursor lido do texto, ou null se o texto for inválido
+         */
+        public static Cursor decode(String text) {
+            int separator = text.indexOf('-');
+            if (separator <= 0) {
+                return null;
+            }
+
+            try {
+                return new Cursor(Long.parseLong(text.substring(0, separator), 36),
+                        Integer.parseInt(text.substring(separator + 1), 36));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
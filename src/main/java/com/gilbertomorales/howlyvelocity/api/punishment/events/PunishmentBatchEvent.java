@@ -0,0 +1,28 @@
+package com.gilbertomorales.howlyvelocity.api.punishment.events;
+
+import com.gilbertomorales.howlyvelocity.api.punishment.Punishment;
+import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentType;
+
+import java.util.List;
+
+/**
+ * Disparado uma única vez por punição em massa (ex: onda de banimentos), no lugar de um PunishmentEvent por jogador
+ */
+public class PunishmentBatchEvent {
+
+    private final PunishmentType type;
+    private final List<Punishment> punishments;
+
+    public PunishmentBatchEvent(PunishmentType type, List<Punishment> punishments) {
+        this.type = type;
+        this.punishments = punishments;
+    }
+
+    public PunishmentType getType() {
+        return type;
+    }
+
+    public List<Punishment> getPunishments() {
+        return punishments;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gilbertomorales.howlyvelocity.api.punishment.events;
+
+import com.gilbertomorales.howlyvelocity.api.punishment.Punishment;
+
+public class PunishmentExpiredEvent {
+
+    private final Punishment punishment;
+
+    public PunishmentExpiredEvent(Punishment punishment) {
+        this.punishment = punishment;
+    }
+
+    public Punishment getPunishment() {
+        return punishment;
+    }
+}
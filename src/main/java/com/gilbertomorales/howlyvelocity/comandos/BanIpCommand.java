@@ -0,0 +1,113 @@
+package com.gilbertomorales.howlyvelocity.comandos;
+
+import com.gilbertomorales.howlyvelocity.api.HowlyAPI;
+import com.gilbertomorales.howlyvelocity.api.punishment.IpBan;
+import com.gilbertomorales.howlyvelocity.utils.TimeUtils;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection;
+
+public class BanIpCommand implements SimpleCommand {
+
+    private final ProxyServer server;
+    private final HowlyAPI api;
+
+    public BanIpCommand(ProxyServer server) {
+        this.server = server;
+        this.api = HowlyAPI.getInstance();
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        String[] args = invocation.arguments();
+
+        if (!source.hasPermission("howly.gerente")) {
+            source.sendMessage(legacySection().deserialize("§cVocê precisa ser do grupo §4Gerente §cou superior para usar este comando."));
+            return;
+        }
+
+        if (args.length < 2) {
+            source.sendMessage(legacySection().deserialize(""));
+            source.sendMessage(legacySection().deserialize("§eUtilize: /banip <ip/faixa> <tempo> <motivo>"));
+            source.sendMessage(legacySection().deserialize(""));
+            source.sendMessage(legacySection().deserialize("§fExemplo: §7/banip 203.0.113.7 7d Motivo"));
+            source.sendMessage(legacySection().deserialize("§fExemplo: §7/banip 203.0.113.0/24 permanente Motivo"));
+            source.sendMessage(legacySection().deserialize("§fTempos: §7s (segundos), m (minutos), h (horas), d (dias), w (semanas), M (meses), permanente"));
+            source.sendMessage(legacySection().deserialize(""));
+            return;
+        }
+
+        final String network = args[0];
+        final String timeArg = args[1];
+        final String reason = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
+
+        if (reason.isEmpty()) {
+            source.sendMessage(legacySection().deserialize("§cVocê precisa especificar um motivo para a punição."));
+            return;
+        }
+
+        final String punisherName = (source instanceof Player)
+                ? ((Player) source).getUsername()
+                : "Console";
+
+        final Long duration;
+        if (!timeArg.equalsIgnoreCase("permanent") && !timeArg.equalsIgnoreCase("perm") && !timeArg.equalsIgnoreCase("permanente")) {
+            try {
+                duration = TimeUtils.parseDuration(timeArg);
+                if (duration == null || duration <= 0) {
+                    source.sendMessage(legacySection().deserialize("§cTempo inválido. Use: s, m, h, d, w, M ou 'permanente'."));
+                    return;
+                }
+            } catch (Exception e) {
+                source.sendMessage(legacySection().deserialize("§cTempo inválido. Use: s, m, h, d, w, M ou 'permanente'."));
+                return;
+            }
+        } else {
+            duration = null;
+        }
+
+        CompletableFuture<IpBan> banFuture = api.getPunishmentAPI().banIp(network, reason, duration, punisherName);
+
+        banFuture.thenAccept(ban -> {
+            String banMessage = "\n§c" + ban.getNetwork() + " foi banido por " + punisherName + ".\n§cMotivo: " + reason + "\n";
+            server.getAllPlayers().stream()
+                    .filter(p -> p.hasPermission("howly.ajudante"))
+                    .forEach(p -> p.sendMessage(legacySection().deserialize(banMessage)));
+
+            source.sendMessage(legacySection().deserialize("§aIP banido com sucesso!"));
+        }).exceptionally(ex -> {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IllegalArgumentException) {
+                source.sendMessage(legacySection().deserialize("§c" + cause.getMessage()));
+                return null;
+            }
+
+            source.sendMessage(legacySection().deserialize("§cErro ao aplicar punição: " + cause.getMessage()));
+            ex.printStackTrace();
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> suggest(Invocation invocation) {
+        String[] args = invocation.arguments();
+
+        if (args.length == 2) {
+            String partialTime = args[1].toLowerCase();
+            return List.of("1h", "1d", "7d", "30d", "permanent").stream()
+                    .filter(time -> time.startsWith(partialTime))
+                    .collect(Collectors.toList());
+        }
+
+        return List.of();
+    }
+}
@@ -0,0 +1,169 @@
+package com.gilbertomorales.howlyvelocity.comandos;
+
+import com.gilbertomorales.howlyvelocity.api.HowlyAPI;
+import com.gilbertomorales.howlyvelocity.api.punishment.Punishment;
+import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentPage;
+import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentType;
+import com.gilbertomorales.howlyvelocity.utils.PlayerUtils;
+import com.gilbertomorales.howlyvelocity.utils.TimeUtils;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class HistoricoCommand implements SimpleCommand {
+
+    private static final int PAGE_SIZE = 10;
+    private static final String STAFF_FLAG = "--staff";
+
+    private final ProxyServer server;
+    private final HowlyAPI api;
+
+    public HistoricoCommand(ProxyServer server) {
+        this.server = server;
+        this.api = HowlyAPI.getInstance();
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        String[] args = invocation.arguments();
+
+        if (!source.hasPermission("howly.ajudante")) {
+            source.sendMessage(Component.text("§cVocê precisa ser do grupo §eAjudante §cou superior para usar este comando."));
+            return;
+        }
+
+        // Nomes de jogador não começam com "-", então a flag não conflita com nenhum jogador
+        boolean byStaff = args.length > 0 && args[0].equalsIgnoreCase(STAFF_FLAG);
+        int offset = byStaff ? 1 : 0;
+
+        if (args.length <= offset) {
+            source.sendMessage(Component.text(""));
+            source.sendMessage(Component.text("§eUtilize: /historico <jogador/#id> [ban|mute|kick|todos]"));
+            source.sendMessage(Component.text("§eUtilize: /historico " + STAFF_FLAG + " <staff> [ban|mute|kick|todos]"));
+            source.sendMessage(Component.text(""));
+            return;
+        }
+
+        String target = args[offset];
+
+        PunishmentType type = null;
+        String typeArg = args.length > offset + 1 ? args[offset + 1] : "todos";
+        if (!typeArg.equalsIgnoreCase("todos")) {
+            type = PunishmentType.fromString(typeArg);
+            if (type == null) {
+                source.sendMessage(Component.text("§cTipo inválido. Use: ban, mute, kick ou todos."));
+                return;
+            }
+        }
+
+        PunishmentPage.Cursor cursor = null;
+        if (args.length > offset + 2) {
+            cursor = PunishmentPage.Cursor.decode(args[offset + 2]);
+            if (cursor == null) {
+                source.sendMessage(Component.text("§cPágina inválida."));
+                return;
+            }
+        }
+
+        final PunishmentType filter = type;
+        final PunishmentPage.Cursor after = cursor;
+
+        if (byStaff) {
+            showPage(source, api.getPunishmentAPI().getPunishmentsByPunisher(target, filter, after, PAGE_SIZE),
+                    "Punições aplicadas por " + target, STAFF_FLAG + " " + target, typeArg, after == null, true);
+            return;
+        }
+
+        PlayerUtils.findPlayer(server, target).thenAccept(result -> {
+            if (result == null) {
+                source.sendMessage(Component.text("§cJogador não encontrado."));
+                return;
+            }
+
+            showPage(source, api.getPunishmentAPI().getPlayerPunishments(result.getUUID(), filter, after, PAGE_SIZE),
+                    "Histórico de " + result.getName(), result.getName(), typeArg, after == null, false);
+        }).exceptionally(ex -> {
+            source.sendMessage(Component.text("§cErro ao buscar jogador: " + ex.getMessage()));
+            ex.printStackTrace();
+            return null;
+        });
+    }
+
+    private void showPage(CommandSource source, CompletableFuture<PunishmentPage> pageFuture, String title,
+                          String commandTarget, String typeArg, boolean firstPage, boolean showPlayer) {
+        pageFuture.thenAccept(page -> {
+            if (page.getPunishments().isEmpty()) {
+                source.sendMessage(Component.text(firstPage ? "§cNenhuma punição encontrada." : "§cNão há mais punições."));
+                return;
+            }
+
+            source.sendMessage(Component.text(" "));
+            source.sendMessage(Component.text("§e" + title + ":"));
+            source.sendMessage(Component.text(" "));
+
+            for (Punishment punishment : page.getPunishments()) {
+                String status = punishment.isActive() && !punishment.isExpired() ? "§aativa" : "§7inativa";
+                String duration = punishment.getType() == PunishmentType.KICK ? ""
+                        : punishment.isPermanent() ? " §8(permanente)"
+                        : " §8(" + TimeUtils.formatDuration(punishment.getExpiresAt() - punishment.getCreatedAt()) + ")";
+
+                source.sendMessage(Component.text("§f#" + punishment.getId() + " §c" + punishment.getType().name() +
+                        duration + " §7" + TimeUtils.formatDate(punishment.getCreatedAt()) + " §8- " + status));
+
+                String author = showPlayer ? "Jogador: §7" + playerName(punishment) : "Autor: §7" + punishment.getPunisher();
+                source.sendMessage(Component.text("  §fMotivo: §7" + punishment.getReason() + " §f" + author));
+            }
+
+            if (page.hasMore()) {
+                String nextCommand = "/historico " + commandTarget + " " + typeArg + " " + page.getNextCursor().encode();
+                source.sendMessage(Component.text(" "));
+                source.sendMessage(Component.text("§e[Próxima página]")
+                        .clickEvent(ClickEvent.runCommand(nextCommand))
+                        .hoverEvent(Component.text("§7Clique para ver punições mais antigas")));
+            }
+
+            source.sendMessage(Component.text(" "));
+        }).exceptionally(ex -> {
+            source.sendMessage(Component.text("§cErro ao buscar histórico: " + ex.getMessage()));
+            ex.printStackTrace();
+            return null;
+        });
+    }
+
+    private String playerName(Punishment punishment) {
+        return server.getPlayer(punishment.getPlayerUUID())
+                .map(Player::getUsername)
+                .orElse(punishment.getPlayerUUID().toString());
+    }
+
+    @Override
+    public List<String> suggest(Invocation invocation) {
+        String[] args = invocation.arguments();
+
+        if (args.length <= 1) {
+            String partialName = args.length == 0 ? "" : args[0].toLowerCase();
+            return Stream.concat(server.getAllPlayers().stream().map(Player::getUsername), Stream.of(STAFF_FLAG))
+                    .filter(name -> name.toLowerCase().startsWith(partialName))
+                    .collect(Collectors.toList());
+        }
+
+        boolean byStaff = args[0].equalsIgnoreCase(STAFF_FLAG);
+        if (args.length == (byStaff ? 3 : 2)) {
+            String partialType = args[args.length - 1].toLowerCase();
+            return Stream.of("ban", "mute", "kick", "todos")
+                    .filter(type -> type.startsWith(partialType))
+                    .collect(Collectors.toList());
+        }
+
+        return List.of();
+    }
+}
@@ -10,8 +10,11 @@ import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import net.kyori.adventure.text.Component;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class TempoCommand implements SimpleCommand {
@@ -45,7 +48,20 @@ public class TempoCommand implements SimpleCommand {
         String subCommand = args[0].toLowerCase();
 
         switch (subCommand) {
-            case "top" -> showTopPlaytime(sender);
+            case "top" -> {
+                if (args.length < 2) {
+                    showTopPlaytime(sender, null);
+                    return;
+                }
+
+                PlaytimeManager.PlaytimePeriod period = PlaytimeManager.PlaytimePeriod.fromArgument(args[1]);
+                if (period == null) {
+                    sender.sendMessage(Component.text("§cUtilize: /tempo top [diario/semanal/mensal]"));
+                    return;
+                }
+
+                showTopPlaytime(sender, period);
+            }
             case "resetar", "reset" -> {
                 if (args.length < 2) {
                     sender.sendMessage(Component.text("§cUtilize: /tempo resetar <jogador/#id>"));
@@ -78,6 +94,7 @@ public class TempoCommand implements SimpleCommand {
             } else {
                 sender.sendMessage(Component.text("§eTempo online de " + formattedName + "§e: §f" + formattedTime));
             }
+            sendRank(sender, target.getUniqueId());
         }).exceptionally(ex -> {
             sender.sendMessage(Component.text("§cErro ao buscar tempo online: " + ex.getMessage()));
             ex.printStackTrace();
@@ -102,6 +119,7 @@ public class TempoCommand implements SimpleCommand {
                         String formattedName = groupManager.getFormattedPlayerNameByUUID(result.getUUID(), playerName);
                         sender.sendMessage(Component.text("§eTempo online de " + formattedName + "§e: §f" + formattedTime));
                     }
+                    sendRank(sender, result.getUUID());
                 }).exceptionally(ex -> {
                     sender.sendMessage(Component.text("§cErro ao buscar tempo online: " + ex.getMessage()));
                     ex.printStackTrace();
@@ -117,17 +135,29 @@ public class TempoCommand implements SimpleCommand {
         });
     }
 
-    private void showTopPlaytime(Player sender) {
+    private void sendRank(Player sender, UUID targetUuid) {
+        int rank = playtimeManager.getPlayerRank(targetUuid);
+        if (rank > 0) {
+            sender.sendMessage(Component.text("§7Posição no ranking: §f" + rank + "º"));
+        }
+    }
+
+    private void showTopPlaytime(Player sender, PlaytimeManager.PlaytimePeriod period) {
         sender.sendMessage(Component.text("§eBuscando ranking de tempo online..."));
-        
-        playtimeManager.getTopPlaytime().thenAccept(topList -> {
+
+        CompletableFuture<List<PlaytimeManager.PlaytimeEntry>> topFuture = period != null
+                ? playtimeManager.getTopPlaytime(period)
+                : playtimeManager.getTopPlaytime();
+
+        topFuture.thenAccept(topList -> {
             if (topList.isEmpty()) {
                 sender.sendMessage(Component.text("§cNenhum dado de tempo online encontrado."));
                 return;
             }
             
             sender.sendMessage(Component.text(" "));
-            sender.sendMessage(Component.text("§e§lTOP 10 - TEMPO ONLINE"));
+            String title = period != null ? " (" + period.getDisplayName().toUpperCase() + ")" : "";
+            sender.sendMessage(Component.text("§e§lTOP 10 - TEMPO ONLINE" + title));
             sender.sendMessage(Component.text(" "));
             
             for (int i = 0; i < topList.size(); i++) {
@@ -212,6 +242,12 @@ public class TempoCommand implements SimpleCommand {
                     .collect(Collectors.toList()));
             
             return suggestions;
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("top")) {
+            String arg = args[1].toLowerCase();
+            return Arrays.stream(PlaytimeManager.PlaytimePeriod.values())
+                    .map(PlaytimeManager.PlaytimePeriod::getArgument)
+                    .filter(argument -> argument.startsWith(arg))
+                    .collect(Collectors.toList());
         } else if (args.length == 2 && args[0].equalsIgnoreCase("resetar")) {
             String arg = args[1].toLowerCase();
             return server.getAllPlayers().stream()
@@ -0,0 +1,77 @@
+package com.gilbertomorales.howlyvelocity.comandos;
+
+import com.gilbertomorales.howlyvelocity.api.HowlyAPI;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.kyori.adventure.text.Component;
+
+import java.util.List;
+
+public class UnbanIpCommand implements SimpleCommand {
+
+    private final ProxyServer server;
+    private final HowlyAPI api;
+
+    public UnbanIpCommand(ProxyServer server) {
+        this.server = server;
+        this.api = HowlyAPI.getInstance();
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        String[] args = invocation.arguments();
+
+        if (!source.hasPermission("howly.gerente")) {
+            source.sendMessage(Component.text("§cVocê precisa ser do grupo §4Gerente §cou superior para usar este comando."));
+            return;
+        }
+
+        if (args.length < 1) {
+            source.sendMessage(Component.text("§cUtilize: /unbanip <ip/faixa>"));
+            return;
+        }
+
+        String network = args[0];
+
+        // Obter nome do unbanner
+        String unbannerName;
+        if (source instanceof Player) {
+            unbannerName = ((Player) source).getUsername();
+        } else {
+            unbannerName = "Console";
+        }
+
+        api.getPunishmentAPI().unbanIp(network, unbannerName).thenAccept(success -> {
+            if (success) {
+                // Notificar staff
+                String unbanMessage = "\n§e" + network + " foi desbanido por §a" + unbannerName + "§e." + "\n";
+
+                server.getAllPlayers().stream()
+                        .filter(p -> p.hasPermission("howly.ajudante"))
+                        .forEach(p -> p.sendMessage(Component.text(unbanMessage)));
+
+                source.sendMessage(Component.text("§aIP desbanido com sucesso!"));
+            } else {
+                source.sendMessage(Component.text("§cEste IP ou faixa não está banido."));
+            }
+        }).exceptionally(ex -> {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IllegalArgumentException) {
+                source.sendMessage(Component.text("§c" + cause.getMessage()));
+                return null;
+            }
+
+            source.sendMessage(Component.text("§cErro ao desbanir IP: " + cause.getMessage()));
+            ex.printStackTrace();
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> suggest(Invocation invocation) {
+        return List.of();
+    }
+}
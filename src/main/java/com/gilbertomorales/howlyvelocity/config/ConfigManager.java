@@ -51,6 +51,8 @@ public class ConfigManager {
         database.addProperty("database", "howly");
         database.addProperty("username", "root");
         database.addProperty("password", "");
+        database.addProperty("pool_size", 10);
+        database.addProperty("write_behind_ms", 500);
         config.add("database", database);
 
         // Configurações gerais
@@ -101,6 +103,16 @@ public class ConfigManager {
         return config.getAsJsonObject("database").get("password").getAsString();
     }
 
+    public int getDatabasePoolSize() {
+        JsonObject database = config.getAsJsonObject("database");
+        return database.has("pool_size") ? database.get("pool_size").getAsInt() : 10;
+    }
+
+    public long getWriteBehindInterval() {
+        JsonObject database = config.getAsJsonObject("database");
+        return database.has("write_behind_ms") ? database.get("write_behind_ms").getAsLong() : 500;
+    }
+
     // Métodos para configurações gerais
     public boolean isDebugEnabled() {
         return config.getAsJsonObject("general").get("debug").getAsBoolean();
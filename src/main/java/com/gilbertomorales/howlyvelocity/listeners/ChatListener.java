@@ -4,46 +4,45 @@ import com.gilbertomorales.howlyvelocity.api.HowlyAPI;
 import com.gilbertomorales.howlyvelocity.api.punishment.Punishment;
 import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentAPI;
 import com.gilbertomorales.howlyvelocity.managers.ChatManager;
+import com.gilbertomorales.howlyvelocity.managers.ChatPrefixCache;
 import com.gilbertomorales.howlyvelocity.managers.IgnoreManager;
-import com.gilbertomorales.howlyvelocity.managers.MedalManager;
-import com.gilbertomorales.howlyvelocity.managers.TagManager;
 import com.gilbertomorales.howlyvelocity.utils.ChatUtils;
 import com.gilbertomorales.howlyvelocity.utils.TimeUtils;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.player.PlayerChatEvent;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.proxy.ServerConnection;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
+import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
-import com.gilbertomorales.howlyvelocity.managers.GroupManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class ChatListener {
 
     private final ProxyServer server;
     private final PunishmentAPI punishmentAPI;
-    private final TagManager tagManager;
-    private final MedalManager medalManager;
     private final IgnoreManager ignoreManager;
     private final ChatManager chatManager;
-    private final GroupManager groupManager;
+    private final ChatPrefixCache prefixCache;
 
-    public ChatListener(ProxyServer server, HowlyAPI api, TagManager tagManager,
-                        MedalManager medalManager, IgnoreManager ignoreManager,
-                        ChatManager chatManager, GroupManager groupManager) {
+    public ChatListener(ProxyServer server, HowlyAPI api, IgnoreManager ignoreManager,
+                        ChatManager chatManager, ChatPrefixCache prefixCache) {
         this.server = server;
         this.punishmentAPI = api.getPunishmentAPI();
-        this.tagManager = tagManager;
-        this.medalManager = medalManager;
         this.ignoreManager = ignoreManager;
         this.chatManager = chatManager;
-        this.groupManager = groupManager;
+        this.prefixCache = prefixCache;
     }
 
     @Subscribe(order = PostOrder.FIRST)
@@ -85,58 +84,27 @@ public class ChatListener {
         RegisteredServer currentServer = serverConnection.get().getServer();
         Component formattedMessage = formatMessage(sender, message);
 
+        // Na maioria das vezes ninguém ignora o remetente e o servidor inteiro recebe de uma vez
+        Set<UUID> ignoredBy = ignoreManager.getIgnoredBy(sender.getUniqueId());
+        if (ignoredBy.isEmpty()) {
+            currentServer.sendMessage(formattedMessage);
+            return;
+        }
+
         // Enviar para todos os jogadores no mesmo servidor, exceto os que estão ignorando o remetente
+        List<Player> recipients = new ArrayList<>();
         for (Player player : currentServer.getPlayersConnected()) {
-            // Verificar se o jogador não está ignorando o remetente
-            if (!ignoreManager.isIgnoring(player.getUniqueId(), sender.getUniqueId())) {
-                player.sendMessage(formattedMessage);
+            if (!ignoredBy.contains(player.getUniqueId())) {
+                recipients.add(player);
             }
         }
+        Audience.audience(recipients).sendMessage(formattedMessage);
     }
 
     /**
-     * Formata mensagem para chat do servidor usando Components
+     * Formata mensagem para chat do servidor: prefixo em cache + mensagem
      */
     private Component formatMessage(Player sender, String message) {
-        Component finalMessage = Component.empty();
-
-        // Medalha
-        String medalSymbol = medalManager.getFormattedPlayerMedal(sender).trim();
-        if (!medalSymbol.isEmpty()) {
-            Component medalComponent = Component.text(medalSymbol)
-                    .hoverEvent(Component.text("§fMedalha: " + medalSymbol + "\n§aAdquira em: howlymc.com"));
-            finalMessage = finalMessage.append(medalComponent).append(Component.text(" "));
-        }
-
-        // Tag
-        String tagFormatted = tagManager.getFormattedPlayerTag(sender).trim();
-        if (!tagFormatted.isEmpty()) {
-            Component tagComponent = Component.text(tagFormatted)
-                    .hoverEvent(Component.text("§fTag: " + tagFormatted + "\n§aAdquira em: howlymc.com"));
-            finalMessage = finalMessage.append(tagComponent).append(Component.text(" "));
-        }
-
-        // Grupo (prefixo)
-        if (groupManager.isLuckPermsAvailable()) {
-            String groupPrefix = groupManager.getPlayerGroupPrefix(sender);
-            if (!groupPrefix.isEmpty()) {
-                Component groupComponent = Component.text(groupPrefix)
-                        .hoverEvent(Component.text("§fGrupo: " + groupManager.getPlayerGroupInfo(sender).getDisplayName()));
-            finalMessage = finalMessage.append(groupComponent).append(Component.text(" "));
-        }
-}
-
-        // Nome do jogador (usar cor do grupo se disponível, senão usar cor da tag)
-        String nameColor;
-        if (groupManager.isLuckPermsAvailable()) {
-            nameColor = groupManager.getPlayerGroupNameColor(sender);
-        } else {
-            nameColor = tagManager.getPlayerNameColor(sender);
-        }
-
-        TextColor playerNameColor = getTextColorFromCode(nameColor);
-        finalMessage = finalMessage.append(Component.text(sender.getUsername()).color(playerNameColor));
-
         // Adicionar mensagem com tooltip de data
         long timestamp = System.currentTimeMillis();
         String dateFormatted = TimeUtils.formatDate(timestamp).replace(" ", " às ");
@@ -145,39 +113,11 @@ public class ChatListener {
                 .append(Component.text(message).color(TextColor.color(255, 255, 255)))
                 .hoverEvent(Component.text("§7Enviada em §f" + dateFormatted + "§7."));
 
-        finalMessage = finalMessage.append(messageComponent);
-
-        return finalMessage;
+        return prefixCache.getPrefix(sender).append(messageComponent);
     }
 
-
-
-
-
-    private TextColor getTextColorFromCode(String colorCode) {
-        if (colorCode == null || colorCode.isEmpty()) {
-            return TextColor.color(255, 255, 255);
-        }
-
-        char code = colorCode.charAt(colorCode.length() - 1);
-        return switch (code) {
-            case '0' -> TextColor.color(0, 0, 0);          // Preto
-            case '1' -> TextColor.color(0, 0, 170);        // Azul escuro
-            case '2' -> TextColor.color(0, 170, 0);        // Verde escuro
-            case '3' -> TextColor.color(0, 170, 170);      // Ciano
-            case '4' -> TextColor.color(170, 0, 0);        // Vermelho escuro
-            case '5' -> TextColor.color(170, 0, 170);      // Roxo
-            case '6' -> TextColor.color(255, 170, 0);      // Dourado
-            case '7' -> TextColor.color(170, 170, 170);    // Cinza
-            case '8' -> TextColor.color(85, 85, 85);       // Cinza escuro
-            case '9' -> TextColor.color(85, 85, 255);      // Azul
-            case 'a' -> TextColor.color(85, 255, 85);      // Verde
-            case 'b' -> TextColor.color(85, 255, 255);     // Azul claro
-            case 'c' -> TextColor.color(255, 85, 85);      // Vermelho
-            case 'd' -> TextColor.color(255, 85, 255);     // Rosa
-            case 'e' -> TextColor.color(255, 255, 85);     // Amarelo
-            case 'f' -> TextColor.color(255, 255, 255);    // Branco
-            default -> TextColor.color(255, 255, 255);
-        };
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        prefixCache.invalidate(event.getPlayer().getUniqueId());
     }
 }
@@ -2,14 +2,20 @@ package com.gilbertomorales.howlyvelocity.listeners;
 
 import com.gilbertomorales.howlyvelocity.api.HowlyAPI;
 import com.gilbertomorales.howlyvelocity.api.punishment.Punishment;
+import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentManager;
+import com.gilbertomorales.howlyvelocity.managers.IgnoreManager;
+import com.gilbertomorales.howlyvelocity.managers.MedalManager;
 import com.gilbertomorales.howlyvelocity.managers.PlayerDataManager;
 import com.gilbertomorales.howlyvelocity.managers.TagManager;
 import com.gilbertomorales.howlyvelocity.managers.PlaytimeManager;
 import com.gilbertomorales.howlyvelocity.utils.TimeUtils;
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
 import com.velocitypowered.api.event.connection.PreLoginEvent;
 import com.velocitypowered.api.event.player.ServerConnectedEvent;
 import com.velocitypowered.api.proxy.Player;
@@ -18,6 +24,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.slf4j.Logger;
 
+import java.net.InetSocketAddress;
 import java.util.concurrent.TimeUnit;
 
 public class PlayerListener {
@@ -42,21 +49,36 @@ public class PlayerListener {
         return HowlyAPI.getInstance().getPlugin().getPlaytimeManager();
     }
 
-    @Subscribe(order = PostOrder.FIRST)
-    public void onPreLogin(PreLoginEvent event) {
-        // Verificar se o jogador está banido antes de permitir o login
-        String username = event.getUsername();
+    private MedalManager getMedalManager() {
+        return HowlyAPI.getInstance().getPlugin().getMedalManager();
+    }
+
+    private IgnoreManager getIgnoreManager() {
+        return HowlyAPI.getInstance().getPlugin().getIgnoreManager();
+    }
 
-        // Não podemos verificar banimento aqui porque ainda não temos o UUID
-        // A verificação será feita no LoginEvent
+    @Subscribe(order = PostOrder.FIRST)
+    public EventTask onPreLogin(PreLoginEvent event) {
+        // Ainda não temos o UUID, mas já temos o IP: bans de IP/faixa são barrados antes da autenticação
+        InetSocketAddress address = event.getConnection().getRemoteAddress();
+        if (address == null || address.getAddress() == null) {
+            return null;
+        }
+
+        return EventTask.resumeWhenComplete(getAPI().getPunishmentAPI().getActiveIpBan(address.getAddress()).thenAccept(ipBan -> {
+            if (ipBan != null) {
+                event.setResult(PreLoginEvent.PreLoginComponentResult.denied(
+                        LegacyComponentSerializer.legacySection().deserialize(PunishmentManager.formatIpBanMessage(ipBan))));
+            }
+        }));
     }
 
     @Subscribe(order = PostOrder.FIRST)
-    public void onLogin(LoginEvent event) {
+    public EventTask onLogin(LoginEvent event) {
         Player player = event.getPlayer();
 
-        // Verificar se o jogador está banido
-        getAPI().getPunishmentAPI().getActiveBan(player.getUniqueId()).thenAccept(punishment -> {
+        // O Velocity aguarda a verificação antes de concluir o login, então o banido nunca chega a um servidor
+        return EventTask.resumeWhenComplete(getAPI().getPunishmentAPI().getActiveBan(player.getUniqueId()).thenAccept(punishment -> {
             if (punishment != null) {
                 String timeRemaining = punishment.isPermanent() ? "Permanente" : TimeUtils.formatDuration(punishment.getRemainingTime());
                 String kickMessage = "§c§lHOWLY" + "\n" + "§cVocê está suspenso do servidor." + "\n\n" +
@@ -65,15 +87,42 @@ public class PlayerListener {
                         "§fTempo restante: §7" + timeRemaining + "\n\n" +
                         "§eUse o ID #" + punishment.getId() + " para criar uma revisão em §ndiscord.gg/howly§e.";
 
-                player.disconnect(LegacyComponentSerializer.legacySection().deserialize(kickMessage));
+                event.setResult(ResultedEvent.ComponentResult.denied(LegacyComponentSerializer.legacySection().deserialize(kickMessage)));
             }
-        });
+        }));
+    }
 
-        // Salvar dados do jogador no banco de dados
-        playerDataManager.updatePlayerData(player.getUniqueId(), player.getUsername());
+    @Subscribe
+    public void onPostLogin(PostLoginEvent event) {
+        // Disparado apenas para logins permitidos: banidos não geram escrita no banco
+        Player player = event.getPlayer();
 
-        // Iniciar sessão de tempo online
-        getPlaytimeManager().startSession(player.getUniqueId());
+        // Carregar o perfil da sessão (jogador, tag, medalha e tempo online) em uma única consulta
+        playerDataManager.loadProfile(player.getUniqueId(), player.getUsername()).whenComplete((profile, ex) -> {
+            if (profile != null) {
+                tagManager.cacheLoadedTag(player.getUniqueId(), profile.getTagId());
+                getMedalManager().cacheLoadedMedal(player.getUniqueId(), profile.getMedalId());
+                if (profile.getStoredPlaytime() != null) {
+                    getPlaytimeManager().cacheStoredPlaytime(player.getUniqueId(), profile.getStoredPlaytime());
+                }
+            }
+
+            // O jogador pode ter desconectado enquanto o perfil carregava
+            if (!player.isActive()) {
+                playerDataManager.evictProfile(player.getUniqueId());
+                return;
+            }
+
+            // Carregar a lista de ignorados depois do perfil, que cadastra o jogador na primeira entrada
+            getIgnoreManager().loadPlayer(player.getUniqueId()).thenRun(() -> {
+                if (!player.isActive()) {
+                    getIgnoreManager().evictPlayer(player.getUniqueId());
+                }
+            });
+
+            // Iniciar sessão de tempo online
+            getPlaytimeManager().startSession(player.getUniqueId(), player.getUsername());
+        });
     }
 
     @Subscribe
@@ -102,5 +151,11 @@ public class PlayerListener {
 
         // Finalizar sessão de tempo online
         getPlaytimeManager().endSession(player.getUniqueId());
+
+        // Descartar o perfil da sessão
+        playerDataManager.evictProfile(player.getUniqueId());
+
+        // Descartar a lista de ignorados
+        getIgnoreManager().evictPlayer(player.getUniqueId());
     }
 }
@@ -0,0 +1,107 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import com.velocitypowered.api.proxy.Player;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextColor;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prefixo de chat (medalha, tag, grupo e nome colorido) já montado para cada jogador online.
+ * É refeito apenas quando a tag, a medalha ou os grupos/permissões do jogador mudam.
+ */
+public class ChatPrefixCache {
+
+    private final TagManager tagManager;
+    private final MedalManager medalManager;
+    private final GroupManager groupManager;
+    private final ConcurrentHashMap<UUID, Component> prefixes = new ConcurrentHashMap<>();
+
+    public ChatPrefixCache(TagManager tagManager, MedalManager medalManager, GroupManager groupManager) {
+        this.tagManager = tagManager;
+        this.medalManager = medalManager;
+        this.groupManager = groupManager;
+    }
+
+    /**
+     * Obtém o prefixo do jogador, montando-o apenas se não estiver em cache
+     */
+    public Component getPrefix(Player player) {
+        return prefixes.computeIfAbsent(player.getUniqueId(), uuid -> buildPrefix(player));
+    }
+
+    public void invalidate(UUID uuid) {
+        prefixes.remove(uuid);
+    }
+
+    /**
+     * Descarta todos os prefixos (ex: o catálogo de tags ou medalhas mudou)
+     */
+    public void invalidateAll() {
+        prefixes.clear();
+    }
+
+    private Component buildPrefix(Player player) {
+        Component prefix = Component.empty();
+
+        // Medalha
+        String medalSymbol = medalManager.getFormattedPlayerMedal(player).trim();
+        if (!medalSymbol.isEmpty()) {
+            Component medalComponent = Component.text(medalSymbol)
+                    .hoverEvent(Component.text("§fMedalha: " + medalSymbol + "\n§aAdquira em: howlymc.com"));
+            prefix = prefix.append(medalComponent).append(Component.text(" "));
+        }
+
+        // Tag
+        String tagFormatted = tagManager.getFormattedPlayerTag(player).trim();
+        if (!tagFormatted.isEmpty()) {
+            Component tagComponent = Component.text(tagFormatted)
+                    .hoverEvent(Component.text("§fTag: " + tagFormatted + "\n§aAdquira em: howlymc.com"));
+            prefix = prefix.append(tagComponent).append(Component.text(" "));
+        }
+
+        // Grupo (prefixo) e nome do jogador (usar cor do grupo se disponível, senão usar cor da tag)
+        String nameColor;
+        if (groupManager.isLuckPermsAvailable()) {
+            GroupManager.GroupInfo groupInfo = groupManager.getPlayerGroupInfo(player);
+            if (!groupInfo.getDisplayName().equals("Membro")) {
+                Component groupComponent = Component.text(groupInfo.getColor() + "[" + groupInfo.getDisplayName() + "]")
+                        .hoverEvent(Component.text("§fGrupo: " + groupInfo.getDisplayName()));
+                prefix = prefix.append(groupComponent).append(Component.text(" "));
+            }
+            nameColor = groupInfo.getColor();
+        } else {
+            nameColor = tagManager.getPlayerNameColor(player);
+        }
+
+        return prefix.append(Component.text(player.getUsername()).color(getTextColorFromCode(nameColor)));
+    }
+
+    private TextColor getTextColorFromCode(String colorCode) {
+        if (colorCode == null || colorCode.isEmpty()) {
+            return TextColor.color(255, 255, 255);
+        }
+
+        char code = colorCode.charAt(colorCode.length() - 1);
+        return switch (code) {
+            case '0' -> TextColor.color(0, 0, 0);          // Preto
+            case '1' -> TextColor.color(0, 0, 170);        // Azul escuro
+            case '2' -> TextColor.color(0, 170, 0);        // Verde escuro
+            case '3' -> TextColor.color(0, 170, 170);      // Ciano
+            case '4' -> TextColor.color(170, 0, 0);        // Vermelho escuro
+            case '5' -> TextColor.color(170, 0, 170);      // Roxo
+            case '6' -> TextColor.color(255, 170, 0);      // Dourado
+            case '7' -> TextColor.color(170, 170, 170);    // Cinza
+            case '8' -> TextColor.color(85, 85, 85);       // Cinza escuro
+            case '9' -> TextColor.color(85, 85, 255);      // Azul
+            case 'a' -> TextColor.color(85, 255, 85);      // Verde
+            case 'b' -> TextColor.color(85, 255, 255);     // Azul claro
+            case 'c' -> TextColor.color(255, 85, 85);      // Vermelho
+            case 'd' -> TextColor.color(255, 85, 255);     // Rosa
+            case 'e' -> TextColor.color(255, 255, 85);     // Amarelo
+            case 'f' -> TextColor.color(255, 255, 255);    // Branco
+            default -> TextColor.color(255, 255, 255);
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Executor exclusivo do plugin para chamadas JDBC, com fila limitada e prioridades
+ */
+public class DatabaseExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final PriorityBlockingQueue<Runnable> queue;
+    private final int queueCapacity;
+    // Parte da fila que só LOGIN e CHAT podem ocupar, para que tarefas em segundo plano não barrem a entrada de jogadores
+    private final int reservedCapacity;
+    // Tarefas admitidas que ainda não começaram a rodar; é o que limita a fila (PriorityBlockingQueue não tem limite)
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Métricas de pressão na fila
+    private final AtomicLongArray submitted = new AtomicLongArray(DatabasePriority.values().length);
+    private final AtomicLongArray rejected = new AtomicLongArray(DatabasePriority.values().length);
+
+    public DatabaseExecutor(int threads, int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.reservedCapacity = queueCapacity / 4;
+        this.queue = new PriorityBlockingQueue<>();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "HowlyVelocity-DB-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(DatabasePriority priority, Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        submit(priority, () -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, future);
+        return future;
+    }
+
+    public CompletableFuture<Void> runAsync(DatabasePriority priority, Runnable runnable) {
+        return supplyAsync(priority, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private void submit(DatabasePriority priority, Runnable task, CompletableFuture<?> future) {
+        submitted.incrementAndGet(priority.ordinal());
+
+        if (executor.isShutdown()) {
+            rejected.incrementAndGet(priority.ordinal());
+            future.completeExceptionally(new RejectedExecutionException("Executor do banco de dados encerrado"));
+            return;
+        }
+
+        // Fila cheia: a tarefa é recusada na hora, sem bloquear nem rodar JDBC na thread de quem chamou
+        if (!tryAdmit(priority)) {
+            rejected.incrementAndGet(priority.ordinal());
+            future.completeExceptionally(new RejectedExecutionException("Fila do banco de dados cheia"));
+            return;
+        }
+
+        try {
+            executor.execute(new PrioritizedTask(priority, sequence.getAndIncrement(), () -> {
+                queuedTasks.decrementAndGet();
+                task.run();
+            }));
+        } catch (RejectedExecutionException e) {
+            queuedTasks.decrementAndGet();
+            rejected.incrementAndGet(priority.ordinal());
+            future.completeExceptionally(e);
+        }
+    }
+
+    private boolean tryAdmit(DatabasePriority priority) {
+        boolean critical = priority == DatabasePriority.LOGIN || priority == DatabasePriority.CHAT;
+        int limit = critical ? queueCapacity : queueCapacity - reservedCapacity;
+
+        while (true) {
+            int current = queuedTasks.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (queuedTasks.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    public int getActiveTasks() {
+        return executor.getActiveCount();
+    }
+
+    public long getSubmittedTasks(DatabasePriority priority) {
+        return submitted.get(priority.ordinal());
+    }
+
+    public long getRejectedTasks(DatabasePriority priority) {
+        return rejected.get(priority.ordinal());
+    }
+
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        stats.append("fila=").append(getQueuedTasks()).append("/").append(queueCapacity)
+                .append(", ativas=").append(getActiveTasks());
+
+        for (DatabasePriority priority : DatabasePriority.values()) {
+            stats.append(", ").append(priority.name().toLowerCase())
+                    .append("=").append(getSubmittedTasks(priority))
+                    .append(" (rejeitadas ").append(getRejectedTasks(priority)).append(")");
+        }
+
+        return stats.toString();
+    }
+
+    /**
+     * Para de aceitar tarefas e aguarda as pendentes terminarem
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final DatabasePriority priority;
+        private final long sequence;
+        private final Runnable task;
+
+        PrioritizedTask(DatabasePriority priority, long sequence, Runnable task) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            // Mesma prioridade mantém a ordem de chegada
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+/**
+ * Classes de prioridade das tarefas de banco de dados, da mais urgente para a menos urgente
+ */
+public enum DatabasePriority {
+
+    // Entrada de jogadores, nunca deve esperar atrás de outras tarefas
+    LOGIN,
+
+    // Consultas feitas durante o envio de mensagens
+    CHAT,
+
+    // Comandos administrativos e de jogadores (/info, /tempo top, /ban...)
+    COMMAND,
+
+    // Salvamentos periódicos e carregamentos em segundo plano
+    BACKGROUND
+}
@@ -3,6 +3,7 @@ package com.gilbertomorales.howlyvelocity.managers;
 import com.velocitypowered.api.proxy.Player;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.node.types.InheritanceNode;
@@ -12,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class GroupManager {
@@ -55,6 +57,18 @@ public class GroupManager {
         groupInfoMap.put("default", new GroupInfo("Membro", "§7", "", 0));
     }
 
+    /**
+     * Notifica quando os dados de um jogador são recalculados pelo LuckPerms (grupos ou permissões alterados)
+     */
+    public void onUserDataRecalculate(Object plugin, Consumer<UUID> listener) {
+        if (luckPerms == null) {
+            return;
+        }
+
+        luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                event -> listener.accept(event.getUser().getUniqueId()));
+    }
+
     /**
      * Obtém o grupo principal de um jogador
      */
@@ -1,87 +1,183 @@
 package com.gilbertomorales.howlyvelocity.managers;
 
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class IgnoreManager {
 
-    private final Path dataDirectory;
-    private final File ignoreFile;
-    private final Gson gson;
+    private static final Logger logger = LoggerFactory.getLogger(IgnoreManager.class);
+    private static final String TABLE = "player_ignores";
 
-    // Map de UUID do jogador -> Set de UUIDs ignorados
+    private final DatabaseManager databaseManager;
+    private final File legacyIgnoreFile;
+    private final Gson gson = new Gson();
+
+    // Map de UUID do jogador -> Set de UUIDs ignorados (apenas jogadores online, carregados no login)
     private final Map<UUID, Set<UUID>> playerIgnoreList = new ConcurrentHashMap<>();
 
-    public IgnoreManager(Path dataDirectory) {
-        this.dataDirectory = dataDirectory;
-        this.ignoreFile = new File(dataDirectory.toFile(), "player_ignores.json");
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+    // Índice reverso: UUID do jogador -> Set de UUIDs que o ignoram (usado no envio do chat).
+    // Montado a partir das listas carregadas, então contém apenas quem está online, que é quem recebe mensagens
+    private final Map<UUID, Set<UUID>> ignoredByList = new ConcurrentHashMap<>();
+
+    private final Set<UUID> loadedPlayers = ConcurrentHashMap.newKeySet();
+    // Desconectados cuja lista só pode ser descartada depois que as alterações forem gravadas
+    private final Set<UUID> pendingEvictions = ConcurrentHashMap.newKeySet();
+
+    public IgnoreManager(Path dataDirectory, DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.legacyIgnoreFile = new File(dataDirectory.toFile(), "player_ignores.json");
     }
 
-    public void loadIgnoreData() {
-        try {
-            if (!ignoreFile.exists()) {
-                saveIgnoreData();
-                return;
-            }
+    /**
+     * Importa uma única vez o antigo player_ignores.json para o banco e renomeia o arquivo
+     */
+    public CompletableFuture<Void> importLegacyFile() {
+        if (!legacyIgnoreFile.exists()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-            try (Reader reader = new FileReader(ignoreFile)) {
+        return databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
+            try (Reader reader = new FileReader(legacyIgnoreFile)) {
                 Type ignoreMapType = new TypeToken<Map<String, Set<String>>>() {}.getType();
                 Map<String, Set<String>> loadedIgnores = gson.fromJson(reader, ignoreMapType);
 
+                int imported = 0;
                 if (loadedIgnores != null) {
-                    playerIgnoreList.clear();
-                    loadedIgnores.forEach((playerUuidStr, ignoredUuidStrs) -> {
-                        try {
-                            UUID playerUuid = UUID.fromString(playerUuidStr);
-                            Set<UUID> ignoredUuids = new HashSet<>();
-
-                            for (String ignoredUuidStr : ignoredUuidStrs) {
-                                try {
-                                    ignoredUuids.add(UUID.fromString(ignoredUuidStr));
-                                } catch (IllegalArgumentException e) {
-                                    // Ignorar UUIDs inválidos
-                                }
-                            }
-
-                            playerIgnoreList.put(playerUuid, ignoredUuids);
-                        } catch (IllegalArgumentException e) {
-                            // Ignorar UUIDs inválidos
+                    imported = importIgnores(loadedIgnores);
+                }
+
+                File migratedFile = new File(legacyIgnoreFile.getParentFile(), "player_ignores.json.importado");
+                if (!legacyIgnoreFile.renameTo(migratedFile)) {
+                    logger.warn("Não foi possível renomear " + legacyIgnoreFile.getName());
+                }
+
+                logger.info(imported + " jogadores ignorados importados de " + legacyIgnoreFile.getName());
+            } catch (IOException | SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private int importIgnores(Map<String, Set<String>> loadedIgnores) throws SQLException {
+        long createdAt = System.currentTimeMillis();
+        int queued = 0;
+        int imported = 0;
+
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql())) {
+                for (Map.Entry<String, Set<String>> entry : loadedIgnores.entrySet()) {
+                    UUID playerUuid = parseUuid(entry.getKey());
+                    if (playerUuid == null || entry.getValue() == null) {
+                        continue;
+                    }
+
+                    for (String ignoredUuidStr : entry.getValue()) {
+                        UUID ignoredUuid = parseUuid(ignoredUuidStr);
+                        if (ignoredUuid == null || ignoredUuid.equals(playerUuid)) {
+                            continue;
                         }
-                    });
+
+                        bindInsert(stmt, playerUuid, ignoredUuid, createdAt);
+                        stmt.addBatch();
+                        queued++;
+                    }
                 }
+
+                // Conta só as linhas realmente inseridas: o JOIN não insere nada para jogadores sem cadastro
+                for (int count : stmt.executeBatch()) {
+                    if (count > 0) {
+                        imported += count;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (imported < queued) {
+            logger.warn((queued - imported) + " jogadores ignorados não importados (jogador sem cadastro ou já importado)");
         }
+        return imported;
     }
 
-    public void saveIgnoreData() {
-        try {
-            if (!dataDirectory.toFile().exists()) {
-                dataDirectory.toFile().mkdirs();
-            }
+    /**
+     * Carrega a lista de ignorados do jogador no login
+     */
+    public CompletableFuture<Void> loadPlayer(UUID playerUuid) {
+        // Voltou antes da gravação: a lista em memória continua valendo
+        pendingEvictions.remove(playerUuid);
+
+        // A lista ainda está em memória (desconectou com alterações ainda não gravadas)
+        if (loadedPlayers.contains(playerUuid)) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-            try (Writer writer = new FileWriter(ignoreFile)) {
-                Map<String, Set<String>> saveMap = new HashMap<>();
-                playerIgnoreList.forEach((playerUuid, ignoredUuids) -> {
-                    Set<String> ignoredUuidStrs = new HashSet<>();
-                    ignoredUuids.forEach(uuid -> ignoredUuidStrs.add(uuid.toString()));
-                    saveMap.put(playerUuid.toString(), ignoredUuidStrs);
-                });
-                gson.toJson(saveMap, writer);
+        return databaseManager.runAsync(DatabasePriority.LOGIN, () -> {
+            String sql = "SELECT i.uuid FROM player_ignores x " +
+                    "JOIN players p ON p.id = x.player_id " +
+                    "JOIN players i ON i.id = x.ignored_id " +
+                    "WHERE p.uuid = ?";
+
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                UuidCodec.set(stmt, 1, playerUuid);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID ignoredUuid = UuidCodec.get(rs, "uuid");
+                        if (ignoredUuid != null) {
+                            link(playerIgnoreList, playerUuid, ignoredUuid);
+                            link(ignoredByList, ignoredUuid, playerUuid);
+                        }
+                    }
+                }
+
+                loadedPlayers.add(playerUuid);
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
+        });
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Descarta a lista de ignorados do jogador ao desconectar
+     */
+    public void evictPlayer(UUID playerUuid) {
+        // Alterações ainda não gravadas: manter a lista para não recarregar dados antigos se ele voltar logo,
+        // e descartá-la quando a fila de escrita gravá-las, se ele não tiver voltado até lá
+        if (databaseManager.hasPendingWrites(TABLE, playerUuid)) {
+            pendingEvictions.add(playerUuid);
+            databaseManager.whenWritesFlushed(TABLE, playerUuid, () -> {
+                if (pendingEvictions.remove(playerUuid)) {
+                    evictPlayer(playerUuid);
+                }
+            });
+            return;
+        }
+
+        loadedPlayers.remove(playerUuid);
+        Set<UUID> ignoredPlayers = playerIgnoreList.remove(playerUuid);
+        if (ignoredPlayers != null) {
+            ignoredPlayers.forEach(ignoredUuid -> unlink(ignoredByList, ignoredUuid, playerUuid));
         }
     }
 
@@ -93,11 +189,14 @@ public class IgnoreManager {
             return false; // Não pode ignorar a si mesmo
         }
 
-        Set<UUID> ignoredPlayers = playerIgnoreList.computeIfAbsent(playerUuid, k -> new HashSet<>());
-        boolean added = ignoredPlayers.add(ignoredUuid);
+        boolean added = link(playerIgnoreList, playerUuid, ignoredUuid);
 
         if (added) {
-            saveIgnoreData();
+            link(ignoredByList, ignoredUuid, playerUuid);
+
+            long createdAt = System.currentTimeMillis();
+            databaseManager.enqueueWrite(TABLE, writeKey(playerUuid, ignoredUuid), insertSql(),
+                    stmt -> bindInsert(stmt, playerUuid, ignoredUuid, createdAt));
         }
 
         return added;
@@ -107,18 +206,11 @@ public class IgnoreManager {
      * Remove um jogador da lista de ignorados
      */
     public boolean removeIgnoredPlayer(UUID playerUuid, UUID ignoredUuid) {
-        Set<UUID> ignoredPlayers = playerIgnoreList.get(playerUuid);
-        if (ignoredPlayers == null) {
-            return false;
-        }
-
-        boolean removed = ignoredPlayers.remove(ignoredUuid);
+        boolean removed = unlink(playerIgnoreList, playerUuid, ignoredUuid);
 
         if (removed) {
-            if (ignoredPlayers.isEmpty()) {
-                playerIgnoreList.remove(playerUuid);
-            }
-            saveIgnoreData();
+            unlink(ignoredByList, ignoredUuid, playerUuid);
+            enqueueDelete(playerUuid, ignoredUuid);
         }
 
         return removed;
@@ -136,14 +228,96 @@ public class IgnoreManager {
      * Obtém a lista de jogadores ignorados por um jogador
      */
     public Set<UUID> getIgnoredPlayers(UUID playerUuid) {
-        return playerIgnoreList.getOrDefault(playerUuid, new HashSet<>());
+        Set<UUID> ignoredPlayers = playerIgnoreList.get(playerUuid);
+        return ignoredPlayers != null ? Collections.unmodifiableSet(ignoredPlayers) : Collections.emptySet();
+    }
+
+    /**
+     * Obtém os jogadores online que estão ignorando um jogador (normalmente vazio)
+     */
+    public Set<UUID> getIgnoredBy(UUID targetUuid) {
+        Set<UUID> ignoredBy = ignoredByList.get(targetUuid);
+        return ignoredBy != null ? Collections.unmodifiableSet(ignoredBy) : Collections.emptySet();
     }
 
     /**
      * Limpa toda a lista de ignorados de um jogador
      */
     public void clearIgnoreList(UUID playerUuid) {
-        playerIgnoreList.remove(playerUuid);
-        saveIgnoreData();
+        Set<UUID> ignoredPlayers = playerIgnoreList.remove(playerUuid);
+        if (ignoredPlayers == null) {
+            return;
+        }
+
+        // Uma remoção por linha, para não conflitar na fila com inserções pendentes do mesmo jogador
+        for (UUID ignoredUuid : ignoredPlayers) {
+            unlink(ignoredByList, ignoredUuid, playerUuid);
+            enqueueDelete(playerUuid, ignoredUuid);
+        }
+    }
+
+    private void enqueueDelete(UUID playerUuid, UUID ignoredUuid) {
+        String sql = "DELETE FROM player_ignores " +
+                "WHERE player_id = (SELECT id FROM players WHERE uuid = ?) " +
+                "AND ignored_id = (SELECT id FROM players WHERE uuid = ?)";
+
+        databaseManager.enqueueWrite(TABLE, writeKey(playerUuid, ignoredUuid), sql, stmt -> {
+            UuidCodec.set(stmt, 1, playerUuid);
+            UuidCodec.set(stmt, 2, ignoredUuid);
+        });
+    }
+
+    // Os IDs são resolvidos pelo próprio banco a partir dos UUIDs, sem consulta prévia
+    private String insertSql() {
+        if (databaseManager.isMySQL()) {
+            return "INSERT IGNORE INTO player_ignores (player_id, ignored_id, created_at) " +
+                    "SELECT p.id, i.id, ? FROM players p JOIN players i ON i.uuid = ? WHERE p.uuid = ?";
+        } else if (databaseManager.isH2()) {
+            return "MERGE INTO player_ignores (player_id, ignored_id, created_at) KEY (player_id, ignored_id) " +
+                    "SELECT p.id, i.id, CAST(? AS BIGINT) FROM players p JOIN players i ON i.uuid = ? WHERE p.uuid = ?";
+        } else {
+            // SQLite
+            return "INSERT OR IGNORE INTO player_ignores (player_id, ignored_id, created_at) " +
+                    "SELECT p.id, i.id, ? FROM players p JOIN players i ON i.uuid = ? WHERE p.uuid = ?";
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, UUID playerUuid, UUID ignoredUuid, long createdAt) throws SQLException {
+        stmt.setLong(1, createdAt);
+        UuidCodec.set(stmt, 2, ignoredUuid);
+        UuidCodec.set(stmt, 3, playerUuid);
+    }
+
+    private static String writeKey(UUID playerUuid, UUID ignoredUuid) {
+        return playerUuid + ":" + ignoredUuid;
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Alterações feitas dentro do compute do mapa, para que um Set esvaziado não seja removido
+    // enquanto outra thread adiciona nele
+    private static boolean link(Map<UUID, Set<UUID>> index, UUID key, UUID value) {
+        boolean[] added = {false};
+        index.compute(key, (k, values) -> {
+            Set<UUID> set = values != null ? values : ConcurrentHashMap.newKeySet();
+            added[0] = set.add(value);
+            return set;
+        });
+        return added[0];
+    }
+
+    private static boolean unlink(Map<UUID, Set<UUID>> index, UUID key, UUID value) {
+        boolean[] removed = {false};
+        index.computeIfPresent(key, (k, values) -> {
+            removed[0] = values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+        return removed[0];
     }
 }
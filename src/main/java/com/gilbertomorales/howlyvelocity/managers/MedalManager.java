@@ -1,5 +1,6 @@
 package com.gilbertomorales.howlyvelocity.managers;
 
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
 import com.velocitypowered.api.proxy.Player;
 
 import java.sql.Connection;
@@ -13,23 +14,40 @@ import java.util.concurrent.ConcurrentHashMap;
 public class MedalManager {
 
     private final DatabaseManager databaseManager;
+    private final PlayerDataManager playerDataManager;
 
     // Cache em memória para performance
     private final Map<String, MedalInfo> availableMedals = new ConcurrentHashMap<>();
     private final Map<UUID, String> playerMedals = new ConcurrentHashMap<>();
+    private volatile ChatPrefixCache prefixCache;
 
-    public MedalManager(DatabaseManager databaseManager) {
+    public MedalManager(DatabaseManager databaseManager, PlayerDataManager playerDataManager) {
         this.databaseManager = databaseManager;
+        this.playerDataManager = playerDataManager;
         initDefaultMedals();
     }
 
+    /**
+     * Define o cache de prefixos de chat, invalidado sempre que a medalha de um jogador mudar
+     */
+    public void setPrefixCache(ChatPrefixCache prefixCache) {
+        this.prefixCache = prefixCache;
+    }
+
+    private void invalidatePrefix(UUID uuid) {
+        ChatPrefixCache cache = prefixCache;
+        if (cache != null) {
+            cache.invalidate(uuid);
+        }
+    }
+
     private void initDefaultMedals() {
         // Medalhas padrão serão carregadas do banco de dados
         availableMedals.put("nenhuma", new MedalInfo("", "", ""));
     }
 
     public void loadMedals() {
-        CompletableFuture.runAsync(() -> {
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             try {
                 loadAvailableMedalsFromDB();
                 loadPlayerMedalsFromDB();
@@ -59,7 +77,7 @@ public class MedalManager {
     }
 
     private void loadPlayerMedalsFromDB() throws SQLException {
-        String sql = "SELECT player_uuid, medal_id FROM player_medals";
+        String sql = "SELECT p.uuid, x.medal_id FROM player_medals x JOIN players p ON p.id = x.player_id";
 
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -68,7 +86,7 @@ public class MedalManager {
             playerMedals.clear();
             while (rs.next()) {
                 try {
-                    UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
+                    UUID playerUuid = UuidCodec.get(rs, "uuid");
                     String medalId = rs.getString("medal_id");
                     playerMedals.put(playerUuid, medalId);
                 } catch (IllegalArgumentException e) {
@@ -79,7 +97,7 @@ public class MedalManager {
     }
 
     public void saveMedals() {
-        CompletableFuture.runAsync(() -> {
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             try {
                 saveAvailableMedalsToDB();
             } catch (SQLException e) {
@@ -177,62 +195,63 @@ public class MedalManager {
 
     public void setPlayerMedal(UUID uuid, String medalId) {
         playerMedals.put(uuid, medalId);
+        invalidatePrefix(uuid);
         setPlayerMedalInDB(uuid, medalId);
     }
 
     private void setPlayerMedalInDB(UUID uuid, String medalId) {
-        CompletableFuture.runAsync(() -> {
-            String sql;
-
-            if (databaseManager.isMySQL()) {
-                sql = "INSERT INTO player_medals (player_uuid, medal_id, updated_at) " +
-                        "VALUES (?, ?, ?) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "medal_id = VALUES(medal_id), " +
-                        "updated_at = VALUES(updated_at)";
-            } else if (databaseManager.isH2()) {
-                sql = "MERGE INTO player_medals (player_uuid, medal_id, updated_at) " +
-                        "KEY (player_uuid) VALUES (?, ?, ?)";
-            } else {
-                // SQLite
-                sql = "INSERT OR REPLACE INTO player_medals (player_uuid, medal_id, updated_at) " +
-                        "VALUES (?, ?, ?)";
-            }
-
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String sql;
 
-                stmt.setString(1, uuid.toString());
-                stmt.setString(2, medalId);
-                stmt.setLong(3, System.currentTimeMillis());
-                stmt.executeUpdate();
+        if (databaseManager.isMySQL()) {
+            sql = "INSERT INTO player_medals (player_id, medal_id, updated_at) " +
+                    "VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "medal_id = VALUES(medal_id), " +
+                    "updated_at = VALUES(updated_at)";
+        } else if (databaseManager.isH2()) {
+            sql = "MERGE INTO player_medals (player_id, medal_id, updated_at) " +
+                    "KEY (player_id) VALUES (?, ?, ?)";
+        } else {
+            // SQLite
+            sql = "INSERT OR REPLACE INTO player_medals (player_id, medal_id, updated_at) " +
+                    "VALUES (?, ?, ?)";
+        }
 
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        long updatedAt = System.currentTimeMillis();
+        databaseManager.enqueueWrite("player_medals", uuid, sql, stmt -> {
+            stmt.setInt(1, playerDataManager.requirePlayerId(stmt.getConnection(), uuid));
+            stmt.setString(2, medalId);
+            stmt.setLong(3, updatedAt);
         });
     }
 
+    /**
+     * Atualiza o cache com o valor lido no login do jogador
+     */
+    public void cacheLoadedMedal(UUID uuid, String medalId) {
+        // Uma alteração ainda não gravada é mais recente que o valor lido do banco
+        if (databaseManager.hasPendingWrite("player_medals", uuid)) {
+            return;
+        }
+
+        if (medalId != null) {
+            playerMedals.put(uuid, medalId);
+        } else {
+            playerMedals.remove(uuid);
+        }
+        invalidatePrefix(uuid);
+    }
 
     public void removePlayerMedal(UUID uuid) {
         playerMedals.remove(uuid);
+        invalidatePrefix(uuid);
         removePlayerMedalFromDB(uuid);
     }
 
     private void removePlayerMedalFromDB(UUID uuid) {
-        CompletableFuture.runAsync(() -> {
-            String sql = "DELETE FROM player_medals WHERE player_uuid = ?";
-
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setString(1, uuid.toString());
-                stmt.executeUpdate();
-
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        });
+        String sql = "DELETE FROM player_medals WHERE player_id = ?";
+        databaseManager.enqueueWrite("player_medals", uuid, sql,
+                stmt -> stmt.setInt(1, playerDataManager.requirePlayerId(stmt.getConnection(), uuid)));
     }
 
     public Map<String, MedalInfo> getAvailableMedals() {
@@ -276,15 +295,21 @@ public class MedalManager {
 
         availableMedals.put(medalId, new MedalInfo(symbol, permission, color));
         saveMedals();
+        if (prefixCache != null) {
+            prefixCache.invalidateAll();
+        }
     }
 
     public void removeAvailableMedal(String medalId) {
         availableMedals.remove(medalId);
         saveMedals();
+        if (prefixCache != null) {
+            prefixCache.invalidateAll();
+        }
     }
 
     public CompletableFuture<Void> migrateFromFilesToDatabase() {
-        return CompletableFuture.runAsync(() -> {
+        return databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             // Migração já foi feita, dados estão no banco
         });
     }
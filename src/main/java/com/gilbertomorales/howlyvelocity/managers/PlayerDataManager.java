@@ -1,86 +1,178 @@
 package com.gilbertomorales.howlyvelocity.managers;
 
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class PlayerDataManager {
 
     private final DatabaseManager databaseManager;
 
-    // Cache para melhorar performance
-    private final ConcurrentHashMap<String, UUID> nameToUuidCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, String> uuidToNameCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Integer, UUID> idToUuidCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, Integer> uuidToIdCache = new ConcurrentHashMap<>();
+    private static final int IDENTITY_CACHE_SIZE = 5000;
+    private static final long IDENTITY_CACHE_TTL = TimeUnit.MINUTES.toMillis(30);
+    // Abaixo do limite de parâmetros por comando do SQLite
+    private static final int MAX_IN_PARAMS = 500;
+
+    // Cache de ID/UUID/nome para consultas de jogadores offline
+    private final PlayerIdentityCache identityCache = new PlayerIdentityCache(IDENTITY_CACHE_SIZE, IDENTITY_CACHE_TTL);
+
+    // Perfis dos jogadores online, válidos do login até a desconexão
+    private final ConcurrentHashMap<UUID, PlayerProfile> profiles = new ConcurrentHashMap<>();
 
     public PlayerDataManager(DatabaseManager databaseManager) {
         this.databaseManager = databaseManager;
     }
 
-    public CompletableFuture<Void> updatePlayerData(UUID uuid, String name) {
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = databaseManager.getConnection()) {
-                long currentTime = System.currentTimeMillis();
+    /**
+     * Insere o jogador ou atualiza nome e último login em um único comando atômico
+     * @return ID do jogador ou -1 se o banco não o retornou
+     */
+    private int upsertPlayer(Connection conn, UUID uuid, String name, long currentTime) throws SQLException {
+        String nameLower = name.toLowerCase(Locale.ROOT);
+
+        if (databaseManager.isMySQL()) {
+            // LAST_INSERT_ID(id) faz o ID existente voltar como chave gerada também no caso de atualização
+            String sql = "INSERT INTO players (uuid, name, name_lower, first_join, last_join) VALUES (?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE name = VALUES(name), name_lower = VALUES(name_lower), " +
+                    "last_join = VALUES(last_join), id = LAST_INSERT_ID(id)";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                UuidCodec.set(stmt, 1, uuid);
+                stmt.setString(2, name);
+                stmt.setString(3, nameLower);
+                stmt.setLong(4, currentTime);
+                stmt.setLong(5, currentTime);
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    return generatedKeys.next() ? generatedKeys.getInt(1) : -1;
+                }
+            }
+        }
 
-                // Verificar se o jogador já existe
-                try (PreparedStatement checkStmt = conn.prepareStatement(
-                        "SELECT id, uuid FROM players WHERE uuid = ?")) {
-                    checkStmt.setString(1, uuid.toString());
-                    ResultSet rs = checkStmt.executeQuery();
+        String sql;
+        if (databaseManager.isH2()) {
+            // MERGE ... KEY sobrescreveria first_join, por isso MERGE USING com ramos separados
+            sql = "SELECT id FROM FINAL TABLE (" +
+                    "MERGE INTO players p USING (VALUES (CAST(? AS BINARY(16)), CAST(? AS VARCHAR(16)), " +
+                    "CAST(? AS VARCHAR(16)), CAST(? AS BIGINT))) s(uuid, name, name_lower, join_time) " +
+                    "ON p.uuid = s.uuid " +
+                    "WHEN MATCHED THEN UPDATE SET name = s.name, name_lower = s.name_lower, last_join = s.join_time " +
+                    "WHEN NOT MATCHED THEN INSERT (uuid, name, name_lower, first_join, last_join) " +
+                    "VALUES (s.uuid, s.name, s.name_lower, s.join_time, s.join_time))";
+        } else {
+            // SQLite
+            sql = "INSERT INTO players (uuid, name, name_lower, first_join, last_join) VALUES (?, ?, ?, ?, ?) " +
+                    "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, name_lower = excluded.name_lower, " +
+                    "last_join = excluded.last_join RETURNING id";
+        }
 
-                    if (rs.next()) {
-                        // Atualizar jogador existente
-                        int playerId = rs.getInt("id");
-                        try (PreparedStatement updateStmt = conn.prepareStatement(
-                                "UPDATE players SET name = ?, last_join = ? WHERE uuid = ?")) {
-                            updateStmt.setString(1, name);
-                            updateStmt.setLong(2, currentTime);
-                            updateStmt.setString(3, uuid.toString());
-                            updateStmt.executeUpdate();
-                        }
-                        
-                        // Atualizar cache
-                        uuidToIdCache.put(uuid, playerId);
-                        idToUuidCache.put(playerId, uuid);
-                    } else {
-                        // Inserir novo jogador
-                        try (PreparedStatement insertStmt = conn.prepareStatement(
-                                "INSERT INTO players (uuid, name, first_join, last_join) VALUES (?, ?, ?, ?)",
-                                PreparedStatement.RETURN_GENERATED_KEYS)) {
-                            insertStmt.setString(1, uuid.toString());
-                            insertStmt.setString(2, name);
-                            insertStmt.setLong(3, currentTime);
-                            insertStmt.setLong(4, currentTime);
-                            insertStmt.executeUpdate();
-                            
-                            // Obter o ID gerado
-                            try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
-                                if (generatedKeys.next()) {
-                                    int playerId = generatedKeys.getInt(1);
-                                    // Atualizar cache
-                                    uuidToIdCache.put(uuid, playerId);
-                                    idToUuidCache.put(playerId, uuid);
-                                }
-                            }
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            UuidCodec.set(stmt, 1, uuid);
+            stmt.setString(2, name);
+            stmt.setString(3, nameLower);
+            stmt.setLong(4, currentTime);
+            if (!databaseManager.isH2()) {
+                stmt.setLong(5, currentTime);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : -1;
+            }
+        }
+    }
+
+    /**
+     * Carrega (ou cria) o perfil do jogador em uma única consulta e o mantém até a desconexão
+     * @param uuid UUID do jogador
+     * @param name Nome atual do jogador
+     * @return CompletableFuture com o perfil ou null em caso de erro
+     */
+    public CompletableFuture<PlayerProfile> loadProfile(UUID uuid, String name) {
+        return databaseManager.supplyAsync(DatabasePriority.LOGIN, () -> {
+            long currentTime = System.currentTimeMillis();
+            PlayerProfile profile = null;
+
+            try (Connection conn = databaseManager.getConnection()) {
+                String sql = "SELECT p.id, p.first_join, t.tag_id, m.medal_id, pt.total_time " +
+                        "FROM players p " +
+                        "LEFT JOIN player_tags t ON t.player_id = p.id " +
+                        "LEFT JOIN player_medals m ON m.player_id = p.id " +
+                        "LEFT JOIN player_playtime pt ON pt.player_id = p.id " +
+                        "WHERE p.uuid = ?";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    UuidCodec.set(stmt, 1, uuid);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            profile = new PlayerProfile(rs.getInt("id"), uuid, name, rs.getLong("first_join"), currentTime,
+                                    rs.getString("tag_id"), rs.getString("medal_id"), rs.getObject("total_time", Long.class));
                         }
                     }
                 }
 
-                // Atualizar cache de nomes
-                nameToUuidCache.put(name.toLowerCase(), uuid);
-                uuidToNameCache.put(uuid, name);
-
+                if (profile != null) {
+                    // Jogador existente: nome e último login são gravados em lote
+                    databaseManager.enqueueWrite("players", uuid, "UPDATE players SET name = ?, name_lower = ?, last_join = ? WHERE uuid = ?", stmt -> {
+                        stmt.setString(1, name);
+                        stmt.setString(2, name.toLowerCase(Locale.ROOT));
+                        stmt.setLong(3, currentTime);
+                        UuidCodec.set(stmt, 4, uuid);
+                    });
+                } else {
+                    // Novo jogador (upsert protege contra uma reconexão rápida que já tenha inserido a linha)
+                    int playerId = upsertPlayer(conn, uuid, name, currentTime);
+                    if (playerId > 0) {
+                        profile = new PlayerProfile(playerId, uuid, name, currentTime, currentTime, null, null, null);
+                    }
+                }
             } catch (SQLException e) {
                 e.printStackTrace();
             }
+
+            if (profile == null) {
+                return null;
+            }
+
+            // Atualizar cache
+            identityCache.put(profile.getId(), uuid, name);
+
+            profiles.put(uuid, profile);
+            return profile;
         });
     }
 
+    /**
+     * Obtém o perfil de um jogador online
+     * @param uuid UUID do jogador
+     * @return Perfil carregado no login ou null se o jogador não estiver online
+     */
+    public PlayerProfile getProfile(UUID uuid) {
+        return profiles.get(uuid);
+    }
+
+    /**
+     * Remove o perfil de um jogador que desconectou
+     */
+    public void evictProfile(UUID uuid) {
+        profiles.remove(uuid);
+    }
+
     /**
      * Busca o UUID de um jogador pelo nome
      * @param name Nome do jogador
@@ -88,27 +180,25 @@ public class PlayerDataManager {
      */
     public CompletableFuture<UUID> getPlayerUUID(String name) {
         // Verificar cache primeiro
-        UUID cachedUUID = nameToUuidCache.get(name.toLowerCase());
-        if (cachedUUID != null) {
-            return CompletableFuture.completedFuture(cachedUUID);
+        PlayerIdentityCache.PlayerIdentity cached = identityCache.getByName(name);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.getUuid());
         }
 
         // Buscar no banco de dados
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
-                         "SELECT uuid, id FROM players WHERE LOWER(name) = LOWER(?)")) {
-                stmt.setString(1, name);
+                         "SELECT uuid, id, name FROM players WHERE name_lower = ?")) {
+                stmt.setString(1, name.toLowerCase(Locale.ROOT));
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
-                    UUID uuid = UUID.fromString(rs.getString("uuid"));
+                    UUID uuid = UuidCodec.get(rs, "uuid");
                     int playerId = rs.getInt("id");
                     
                     // Atualizar cache
-                    nameToUuidCache.put(name.toLowerCase(), uuid);
-                    uuidToIdCache.put(uuid, playerId);
-                    idToUuidCache.put(playerId, uuid);
+                    identityCache.put(playerId, uuid, rs.getString("name"));
                     
                     return uuid;
                 }
@@ -127,13 +217,13 @@ public class PlayerDataManager {
      */
     public CompletableFuture<UUID> getPlayerUUIDById(int playerId) {
         // Verificar cache primeiro
-        UUID cachedUUID = idToUuidCache.get(playerId);
-        if (cachedUUID != null) {
-            return CompletableFuture.completedFuture(cachedUUID);
+        PlayerIdentityCache.PlayerIdentity cached = identityCache.getById(playerId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.getUuid());
         }
 
         // Buscar no banco de dados
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
                          "SELECT uuid, name FROM players WHERE id = ?")) {
@@ -141,14 +231,11 @@ public class PlayerDataManager {
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
-                    UUID uuid = UUID.fromString(rs.getString("uuid"));
+                    UUID uuid = UuidCodec.get(rs, "uuid");
                     String name = rs.getString("name");
                     
                     // Atualizar cache
-                    idToUuidCache.put(playerId, uuid);
-                    uuidToIdCache.put(uuid, playerId);
-                    uuidToNameCache.put(uuid, name);
-                    nameToUuidCache.put(name.toLowerCase(), uuid);
+                    identityCache.put(playerId, uuid, name);
                     
                     return uuid;
                 }
@@ -167,17 +254,17 @@ public class PlayerDataManager {
      */
     public CompletableFuture<Integer> getPlayerId(UUID uuid) {
         // Verificar cache primeiro
-        Integer cachedId = uuidToIdCache.get(uuid);
+        Integer cachedId = getCachedPlayerId(uuid);
         if (cachedId != null) {
             return CompletableFuture.completedFuture(cachedId);
         }
 
         // Buscar no banco de dados
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
                          "SELECT id, name FROM players WHERE uuid = ?")) {
-                stmt.setString(1, uuid.toString());
+                UuidCodec.set(stmt, 1, uuid);
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
@@ -185,10 +272,7 @@ public class PlayerDataManager {
                     String name = rs.getString("name");
                     
                     // Atualizar cache
-                    uuidToIdCache.put(uuid, playerId);
-                    idToUuidCache.put(playerId, uuid);
-                    uuidToNameCache.put(uuid, name);
-                    nameToUuidCache.put(name.toLowerCase(), uuid);
+                    identityCache.put(playerId, uuid, name);
                     
                     return playerId;
                 }
@@ -200,6 +284,97 @@ public class PlayerDataManager {
         });
     }
 
+    /**
+     * Resolve o ID de um jogador sem consultar o banco (perfil da sessão ou cache de identidades)
+     * @return ID do jogador ou null se não estiver em cache
+     */
+    public Integer getCachedPlayerId(UUID uuid) {
+        PlayerProfile profile = profiles.get(uuid);
+        if (profile != null) {
+            return profile.getId();
+        }
+
+        PlayerIdentityCache.PlayerIdentity cached = identityCache.getByUuid(uuid);
+        return cached != null ? cached.getId() : null;
+    }
+
+    /**
+     * Resolve o ID de um jogador usando uma conexão já aberta, consultando o banco apenas se não estiver em cache
+     * @return ID do jogador ou -1 se não estiver cadastrado
+     */
+    public int resolvePlayerId(Connection conn, UUID uuid) throws SQLException {
+        Integer cachedId = getCachedPlayerId(uuid);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name FROM players WHERE uuid = ?")) {
+            UuidCodec.set(stmt, 1, uuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    int playerId = rs.getInt("id");
+                    identityCache.put(playerId, uuid, rs.getString("name"));
+                    return playerId;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Resolve os IDs de vários jogadores de uma vez, consultando o banco apenas para os que não estão em cache
+     * @return IDs por UUID (jogadores não cadastrados ficam de fora)
+     */
+    public Map<UUID, Integer> resolvePlayerIds(Connection conn, Collection<UUID> uuids) throws SQLException {
+        Map<UUID, Integer> playerIds = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID uuid : uuids) {
+            Integer cachedId = getCachedPlayerId(uuid);
+            if (cachedId != null) {
+                playerIds.put(uuid, cachedId);
+            } else {
+                missing.add(uuid);
+            }
+        }
+
+        for (int start = 0; start < missing.size(); start += MAX_IN_PARAMS) {
+            List<UUID> chunk = missing.subList(start, Math.min(start + MAX_IN_PARAMS, missing.size()));
+            String sql = "SELECT id, uuid, name FROM players WHERE uuid IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    UuidCodec.set(stmt, i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int playerId = rs.getInt("id");
+                        UUID uuid = UuidCodec.get(rs, "uuid");
+                        identityCache.put(playerId, uuid, rs.getString("name"));
+                        playerIds.put(uuid, playerId);
+                    }
+                }
+            }
+        }
+
+        return playerIds;
+    }
+
+    /**
+     * Resolve o ID do jogador dentro de uma escrita atrasada, na conexão da própria gravação.
+     * Assim a escrita é enfileirada na hora, na ordem em que foi feita, mesmo sem o ID em cache
+     * @throws SQLException se o jogador não estiver cadastrado
+     */
+    public int requirePlayerId(Connection conn, UUID uuid) throws SQLException {
+        int playerId = resolvePlayerId(conn, uuid);
+        if (playerId < 0) {
+            throw new SQLException("Jogador não cadastrado: " + uuid);
+        }
+        return playerId;
+    }
+
     /**
      * Busca o nome de um jogador pelo UUID
      * @param uuid UUID do jogador
@@ -207,17 +382,22 @@ public class PlayerDataManager {
      */
     public CompletableFuture<String> getPlayerName(UUID uuid) {
         // Verificar cache primeiro
-        String cachedName = uuidToNameCache.get(uuid);
-        if (cachedName != null) {
-            return CompletableFuture.completedFuture(cachedName);
+        PlayerProfile profile = profiles.get(uuid);
+        if (profile != null) {
+            return CompletableFuture.completedFuture(profile.getName());
+        }
+
+        PlayerIdentityCache.PlayerIdentity cached = identityCache.getByUuid(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.getName());
         }
 
         // Buscar no banco de dados
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
                          "SELECT name, id FROM players WHERE uuid = ?")) {
-                stmt.setString(1, uuid.toString());
+                UuidCodec.set(stmt, 1, uuid);
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
@@ -225,10 +405,7 @@ public class PlayerDataManager {
                     int playerId = rs.getInt("id");
                     
                     // Atualizar cache
-                    uuidToNameCache.put(uuid, name);
-                    uuidToIdCache.put(uuid, playerId);
-                    idToUuidCache.put(playerId, uuid);
-                    nameToUuidCache.put(name.toLowerCase(), uuid);
+                    identityCache.put(playerId, uuid, name);
                     
                     return name;
                 }
@@ -246,11 +423,16 @@ public class PlayerDataManager {
      * @return CompletableFuture com array [firstJoin, lastJoin] ou null se não encontrado
      */
     public CompletableFuture<long[]> getPlayerLoginInfo(UUID uuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        PlayerProfile profile = profiles.get(uuid);
+        if (profile != null) {
+            return CompletableFuture.completedFuture(new long[]{profile.getFirstJoin(), profile.getLastJoin()});
+        }
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
                          "SELECT first_join, last_join FROM players WHERE uuid = ?")) {
-                stmt.setString(1, uuid.toString());
+                UuidCodec.set(stmt, 1, uuid);
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
@@ -272,7 +454,13 @@ public class PlayerDataManager {
      * @return CompletableFuture com PlayerInfo ou null se não encontrado
      */
     public CompletableFuture<PlayerInfo> getPlayerInfoById(int playerId) {
-        return CompletableFuture.supplyAsync(() -> {
+        PlayerIdentityCache.PlayerIdentity cached = identityCache.getById(playerId);
+        PlayerProfile profile = cached != null ? profiles.get(cached.getUuid()) : null;
+        if (profile != null) {
+            return CompletableFuture.completedFuture(profile.toPlayerInfo());
+        }
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
                          "SELECT id, uuid, name, first_join, last_join FROM players WHERE id = ?")) {
@@ -280,16 +468,13 @@ public class PlayerDataManager {
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
-                    UUID uuid = UUID.fromString(rs.getString("uuid"));
+                    UUID uuid = UuidCodec.get(rs, "uuid");
                     String name = rs.getString("name");
                     long firstJoin = rs.getLong("first_join");
                     long lastJoin = rs.getLong("last_join");
                     
                     // Atualizar cache
-                    uuidToIdCache.put(uuid, playerId);
-                    idToUuidCache.put(playerId, uuid);
-                    uuidToNameCache.put(uuid, name);
-                    nameToUuidCache.put(name.toLowerCase(), uuid);
+                    identityCache.put(playerId, uuid, name);
                     
                     return new PlayerInfo(playerId, uuid, name, firstJoin, lastJoin);
                 }
@@ -307,11 +492,16 @@ public class PlayerDataManager {
      * @return CompletableFuture com PlayerInfo ou null se não encontrado
      */
     public CompletableFuture<PlayerInfo> getPlayerInfo(UUID uuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        PlayerProfile profile = profiles.get(uuid);
+        if (profile != null) {
+            return CompletableFuture.completedFuture(profile.toPlayerInfo());
+        }
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             try (Connection conn = databaseManager.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
                          "SELECT id, uuid, name, first_join, last_join FROM players WHERE uuid = ?")) {
-                stmt.setString(1, uuid.toString());
+                UuidCodec.set(stmt, 1, uuid);
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
@@ -321,10 +511,7 @@ public class PlayerDataManager {
                     long lastJoin = rs.getLong("last_join");
                     
                     // Atualizar cache
-                    uuidToIdCache.put(uuid, playerId);
-                    idToUuidCache.put(playerId, uuid);
-                    uuidToNameCache.put(uuid, name);
-                    nameToUuidCache.put(name.toLowerCase(), uuid);
+                    identityCache.put(playerId, uuid, name);
                     
                     return new PlayerInfo(playerId, uuid, name, firstJoin, lastJoin);
                 }
@@ -375,23 +562,7 @@ public class PlayerDataManager {
         }
     }
 
-    private static final int MAX_CACHE_SIZE = 1000;
-    private static final long CACHE_CLEANUP_INTERVAL = 300000; // 5 minutos
-
-    public void cleanupCache() {
-        long currentTime = System.currentTimeMillis();
-        
-        // Limpar cache se estiver muito grande
-        if (nameToUuidCache.size() > MAX_CACHE_SIZE) {
-            nameToUuidCache.clear();
-            uuidToNameCache.clear();
-            idToUuidCache.clear();
-            uuidToIdCache.clear();
-        }
-    }
-
-    // Método para ser chamado periodicamente
-    public void startCacheCleanup() {
-        // Implementar limpeza periódica se necessário
+    public PlayerIdentityCache getIdentityCache() {
+        return identityCache;
     }
 }
@@ -0,0 +1,158 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache limitado (LRU com expiração por entrada) das identidades dos jogadores: ID, UUID e nome
+ */
+public class PlayerIdentityCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Entradas em ordem de acesso; os índices por nome e ID apontam para a mesma entrada
+    private final LinkedHashMap<UUID, CachedIdentity> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, UUID> byName = new HashMap<>();
+    private final Map<Integer, UUID> byId = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PlayerIdentityCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public synchronized PlayerIdentity getByUuid(UUID uuid) {
+        return lookup(uuid);
+    }
+
+    public synchronized PlayerIdentity getByName(String name) {
+        return lookup(byName.get(name.toLowerCase()));
+    }
+
+    public synchronized PlayerIdentity getById(int id) {
+        return lookup(byId.get(id));
+    }
+
+    /**
+     * Adiciona ou atualiza a identidade de um jogador, removendo a menos usada se o cache estiver cheio
+     */
+    public synchronized void put(int id, UUID uuid, String name) {
+        CachedIdentity previous = entries.remove(uuid);
+        if (previous != null) {
+            unindex(previous.identity);
+        }
+
+        PlayerIdentity identity = new PlayerIdentity(id, uuid, name);
+        entries.put(uuid, new CachedIdentity(identity, System.currentTimeMillis() + ttlMillis));
+        byName.put(name.toLowerCase(), uuid);
+        byId.put(id, uuid);
+
+        Iterator<CachedIdentity> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            CachedIdentity eldest = iterator.next();
+            iterator.remove();
+            unindex(eldest.identity);
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(UUID uuid) {
+        CachedIdentity removed = entries.remove(uuid);
+        if (removed != null) {
+            unindex(removed.identity);
+        }
+    }
+
+    private PlayerIdentity lookup(UUID uuid) {
+        CachedIdentity cached = uuid != null ? entries.get(uuid) : null;
+
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+
+        if (cached.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(uuid);
+            unindex(cached.identity);
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return cached.identity;
+    }
+
+    private void unindex(PlayerIdentity identity) {
+        // Só remover o índice se ainda apontar para este jogador (nomes podem ter trocado de dono)
+        byName.remove(identity.getName().toLowerCase(), identity.getUuid());
+        byId.remove(identity.getId(), identity.getUuid());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized String getStats() {
+        return "entradas=" + entries.size() + "/" + maxSize +
+                ", acertos=" + hits +
+                ", falhas=" + misses +
+                ", remoções=" + evictions;
+    }
+
+    /**
+     * Identidade de um jogador: ID interno, UUID e último nome conhecido
+     */
+    public static class PlayerIdentity {
+        private final int id;
+        private final UUID uuid;
+        private final String name;
+
+        public PlayerIdentity(int id, UUID uuid, String name) {
+            this.id = id;
+            this.uuid = uuid;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class CachedIdentity {
+        private final PlayerIdentity identity;
+        private final long expiresAt;
+
+        CachedIdentity(PlayerIdentity identity, long expiresAt) {
+            this.identity = identity;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import java.util.UUID;
+
+/**
+ * Dados de um jogador online, carregados em uma única consulta no login e mantidos durante a sessão
+ */
+public class PlayerProfile {
+
+    private final int id;
+    private final UUID uuid;
+    private final String name;
+    private final long firstJoin;
+    private final long lastJoin;
+    private final String tagId;
+    private final String medalId;
+    private final Long storedPlaytime;
+
+    public PlayerProfile(int id, UUID uuid, String name, long firstJoin, long lastJoin,
+                         String tagId, String medalId, Long storedPlaytime) {
+        this.id = id;
+        this.uuid = uuid;
+        this.name = name;
+        this.firstJoin = firstJoin;
+        this.lastJoin = lastJoin;
+        this.tagId = tagId;
+        this.medalId = medalId;
+        this.storedPlaytime = storedPlaytime;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getFirstJoin() {
+        return firstJoin;
+    }
+
+    public long getLastJoin() {
+        return lastJoin;
+    }
+
+    /**
+     * Tag salva no banco no momento do login (null se nenhuma)
+     */
+    public String getTagId() {
+        return tagId;
+    }
+
+    /**
+     * Medalha salva no banco no momento do login (null se nenhuma)
+     */
+    public String getMedalId() {
+        return medalId;
+    }
+
+    /**
+     * Tempo online salvo no banco no momento do login (null se o jogador ainda não tem registro)
+     */
+    public Long getStoredPlaytime() {
+        return storedPlaytime;
+    }
+
+    public PlayerDataManager.PlayerInfo toPlayerInfo() {
+        return new PlayerDataManager.PlayerInfo(id, uuid, name, firstJoin, lastJoin);
+    }
+}
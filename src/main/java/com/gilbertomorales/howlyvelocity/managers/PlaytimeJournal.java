@@ -0,0 +1,230 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Diário de sessões em arquivo mapeado em memória, usado para recuperar o tempo online exato após uma queda do proxy.
+ * Um batimento global é gravado a cada segundo (uma única escrita de 8 bytes) e cada sessão ocupa um slot com o UUID
+ * e o horário de saída (0 enquanto o jogador está online). Quem estava online na queda saiu no último batimento.
+ */
+public class PlaytimeJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaytimeJournal.class);
+
+    private static final int MAGIC = 0x48504A31; // "HPJ1"
+    private static final int HEADER_SIZE = 16;   // magic (4) + capacidade (4) + batimento (8)
+    private static final int SLOT_SIZE = 24;     // UUID (16) + saída (8)
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Path journalFile;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // Slots de sessões da execução anterior, mantidos até a recuperação ser gravada
+    private final Set<Integer> recoveredSlots = new HashSet<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    public PlaytimeJournal(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Abre o diário e lê as sessões deixadas pela execução anterior. Os slots dessas sessões são mantidos no arquivo
+     * até releaseRecovered(), para que uma falha antes de a recuperação ser gravada não as perca
+     * @return Horário de saída de cada jogador registrado, ou null se não havia diário válido
+     */
+    public synchronized Map<UUID, Long> open() throws IOException {
+        int storedCapacity = readStoredCapacity();
+
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (storedCapacity <= 0) {
+            channel.truncate(0);
+            map(INITIAL_SLOTS);
+            return null;
+        }
+
+        map(Math.max(storedCapacity, INITIAL_SLOTS));
+        long heartbeat = buffer.getLong(8);
+        Map<UUID, Long> sessionEnds = new HashMap<>();
+
+        for (int slot = 0; slot < storedCapacity; slot++) {
+            int offset = offset(slot);
+            long msb = buffer.getLong(offset);
+            long lsb = buffer.getLong(offset + 8);
+            if (msb == 0 && lsb == 0) {
+                continue;
+            }
+
+            long sessionEnd = buffer.getLong(offset + 16);
+            if (sessionEnd == 0) {
+                // Fixa a saída no último batimento da execução anterior; os batimentos desta não valem para ela
+                sessionEnd = heartbeat;
+                buffer.putLong(offset + 16, sessionEnd);
+            }
+
+            // Um jogador pode ter dois slots se uma recuperação anterior não chegou a ser gravada
+            sessionEnds.merge(new UUID(msb, lsb), sessionEnd, Math::max);
+            recoveredSlots.add(slot);
+        }
+
+        freeSlots.removeAll(recoveredSlots);
+        return sessionEnds;
+    }
+
+    private int readStoredCapacity() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return -1;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile.toFile(), "r")) {
+            if (file.length() < HEADER_SIZE || file.readInt() != MAGIC) {
+                logger.warn("Diário de tempo online inválido, ignorando " + journalFile.getFileName());
+                return -1;
+            }
+
+            int storedCapacity = file.readInt();
+            if ((long) HEADER_SIZE + (long) storedCapacity * SLOT_SIZE > Integer.MAX_VALUE) {
+                logger.warn("Diário de tempo online inválido, ignorando " + journalFile.getFileName());
+                return -1;
+            }
+            return storedCapacity;
+        }
+    }
+
+    /**
+     * Libera os slots das sessões da execução anterior; chamado depois que a recuperação foi gravada no banco
+     */
+    public synchronized void releaseRecovered() {
+        if (buffer == null) {
+            return;
+        }
+
+        for (int slot : recoveredSlots) {
+            int offset = offset(slot);
+            buffer.putLong(offset, 0L);
+            buffer.putLong(offset + 8, 0L);
+            buffer.putLong(offset + 16, 0L);
+            freeSlots.add(slot);
+        }
+        recoveredSlots.clear();
+    }
+
+    private void map(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+        for (int slot = capacity; slot < newCapacity; slot++) {
+            freeSlots.add(slot);
+        }
+        capacity = newCapacity;
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, capacity);
+    }
+
+    /**
+     * Grava o batimento global; chamado a cada segundo
+     */
+    public synchronized void heartbeat(long currentTime) {
+        if (buffer != null) {
+            buffer.putLong(8, currentTime);
+        }
+    }
+
+    public synchronized void sessionStarted(UUID playerUuid) {
+        if (buffer == null) {
+            return;
+        }
+
+        Integer slot = slots.get(playerUuid);
+        if (slot == null) {
+            if (freeSlots.isEmpty() && !grow()) {
+                return;
+            }
+            slot = freeSlots.poll();
+            slots.put(playerUuid, slot);
+
+            int offset = offset(slot);
+            buffer.putLong(offset, playerUuid.getMostSignificantBits());
+            buffer.putLong(offset + 8, playerUuid.getLeastSignificantBits());
+        }
+
+        buffer.putLong(offset(slot) + 16, 0L);
+    }
+
+    public synchronized void sessionEnded(UUID playerUuid, long endTime) {
+        Integer slot = slots.get(playerUuid);
+        if (buffer != null && slot != null) {
+            buffer.putLong(offset(slot) + 16, endTime);
+        }
+    }
+
+    /**
+     * Libera os slots de sessões encerradas antes do horário informado cuja gravação no banco já terminou
+     */
+    public synchronized void releaseEnded(long endedBefore, Predicate<UUID> stillPending) {
+        if (buffer == null) {
+            return;
+        }
+
+        Iterator<Map.Entry<UUID, Integer>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Integer> entry = iterator.next();
+            int offset = offset(entry.getValue());
+            long sessionEnd = buffer.getLong(offset + 16);
+
+            if (sessionEnd != 0 && sessionEnd < endedBefore && !stillPending.test(entry.getKey())) {
+                buffer.putLong(offset, 0L);
+                buffer.putLong(offset + 8, 0L);
+                buffer.putLong(offset + 16, 0L);
+                freeSlots.add(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean grow() {
+        try {
+            map(capacity * 2);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Não foi possível aumentar o diário de tempo online: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    public synchronized void close() {
+        if (buffer == null) {
+            return;
+        }
+
+        buffer.force();
+        buffer = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking de tempo online em memória: uma treap ordenada por tempo (maior primeiro) em que cada nó
+ * guarda o tamanho da sua subárvore, o que permite obter o top N e a posição de um jogador em O(log n).
+ * Guarda apenas os maxSize primeiros: todo jogador com mais tempo que o último do ranking está nele,
+ * então as posições dentro do ranking são exatas.
+ */
+public class PlaytimeLeaderboard {
+
+    private final int maxSize;
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    // Verdadeiro enquanto o ranking contém todos os jogadores com tempo registrado (nenhum ficou de fora)
+    private boolean complete;
+    // Até o primeiro seed o ranking aceita qualquer jogador enquanto houver espaço, mesmo sem saber quem ficou de fora
+    private boolean seeded;
+
+    public PlaytimeLeaderboard(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Preenche o ranking com os primeiros colocados lidos do banco
+     * @param complete Se o banco não tem mais jogadores além dos informados
+     */
+    public void seed(List<PlaytimeManager.PlaytimeEntry> entries, boolean complete) {
+        lock.writeLock().lock();
+        try {
+            this.seeded = true;
+            this.complete = complete;
+            for (PlaytimeManager.PlaytimeEntry entry : entries) {
+                // Um total já atualizado em memória (jogador online) é mais novo que o do banco
+                Node existing = nodes.get(entry.getPlayerUuid());
+                if (existing == null || existing.playtime < entry.getPlaytime()) {
+                    put(entry.getPlayerUuid(), entry.getPlayerName(), entry.getPlaytime());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atualiza (ou adiciona) o tempo de um jogador
+     * @param playerName Nome do jogador, ou null para manter o nome já conhecido
+     */
+    public void update(UUID playerUuid, String playerName, long playtime) {
+        lock.writeLock().lock();
+        try {
+            put(playerUuid, playerName, playtime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(UUID playerUuid, String playerName, long playtime) {
+        Node existing = nodes.remove(playerUuid);
+        if (existing != null) {
+            if (playerName == null) {
+                playerName = existing.playerName;
+            }
+            if (existing.playtime == playtime) {
+                existing.playerName = playerName;
+                nodes.put(playerUuid, existing);
+                return;
+            }
+            root = erase(root, existing);
+        }
+
+        // Com jogadores de fora, só entra quem passa o último colocado (senão a posição poderia estar errada)
+        if ((seeded && !complete) || nodes.size() >= maxSize) {
+            Node last = last();
+            if (last == null || playtime <= last.playtime) {
+                return;
+            }
+        }
+
+        Node node = new Node(playerUuid, playerName, playtime, ThreadLocalRandom.current().nextInt());
+        nodes.put(playerUuid, node);
+        root = insert(root, node);
+
+        if (nodes.size() > maxSize) {
+            Node evicted = last();
+            nodes.remove(evicted.playerUuid);
+            root = erase(root, evicted);
+            complete = false;
+        }
+    }
+
+    private Node last() {
+        Node current = root;
+        while (current != null && current.right != null) {
+            current = current.right;
+        }
+        return current;
+    }
+
+    public void remove(UUID playerUuid) {
+        lock.writeLock().lock();
+        try {
+            Node existing = nodes.remove(playerUuid);
+            if (existing != null) {
+                root = erase(root, existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém os N jogadores com mais tempo online, do maior para o menor
+     */
+    public List<PlaytimeManager.PlaytimeEntry> top(int limit) {
+        List<PlaytimeManager.PlaytimeEntry> entries = new ArrayList<>(limit);
+
+        lock.readLock().lock();
+        try {
+            // Percurso em ordem, interrompido ao atingir o limite
+            Deque<Node> stack = new ArrayDeque<>();
+            Node current = root;
+            while ((current != null || !stack.isEmpty()) && entries.size() < limit) {
+                while (current != null) {
+                    stack.push(current);
+                    current = current.left;
+                }
+                current = stack.pop();
+                entries.add(new PlaytimeManager.PlaytimeEntry(current.playerUuid, current.playerName, current.playtime));
+                current = current.right;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return entries;
+    }
+
+    /**
+     * Obtém a posição do jogador no ranking (1 = maior tempo)
+     * @return Posição, ou -1 se o jogador não estiver entre os primeiros colocados
+     */
+    public int getRank(UUID playerUuid) {
+        lock.readLock().lock();
+        try {
+            Node target = nodes.get(playerUuid);
+            if (target == null) {
+                return -1;
+            }
+
+            int rank = 0;
+            Node current = root;
+            while (current != null) {
+                int cmp = compare(target, current);
+                if (cmp < 0) {
+                    current = current.left;
+                } else if (cmp > 0) {
+                    rank += size(current.left) + 1;
+                    current = current.right;
+                } else {
+                    return rank + size(current.left) + 1;
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maior tempo primeiro; empates desfeitos pelo UUID para que cada jogador tenha uma posição única
+    private static int compare(Node a, Node b) {
+        int cmp = Long.compare(b.playtime, a.playtime);
+        return cmp != 0 ? cmp : a.playerUuid.compareTo(b.playerUuid);
+    }
+
+    private static Node insert(Node tree, Node node) {
+        if (tree == null) {
+            return node;
+        }
+
+        if (node.priority > tree.priority) {
+            Node[] parts = split(tree, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            node.updateSize();
+            return node;
+        }
+
+        if (compare(node, tree) < 0) {
+            tree.left = insert(tree.left, node);
+        } else {
+            tree.right = insert(tree.right, node);
+        }
+        tree.updateSize();
+        return tree;
+    }
+
+    private static Node erase(Node tree, Node node) {
+        if (tree == null) {
+            return null;
+        }
+
+        if (tree == node) {
+            return merge(tree.left, tree.right);
+        }
+
+        if (compare(node, tree) < 0) {
+            tree.left = erase(tree.left, node);
+        } else {
+            tree.right = erase(tree.right, node);
+        }
+        tree.updateSize();
+        return tree;
+    }
+
+    // Divide a árvore em [antes do nó, depois do nó]
+    private static Node[] split(Node tree, Node node) {
+        if (tree == null) {
+            return new Node[]{null, null};
+        }
+
+        if (compare(tree, node) < 0) {
+            Node[] parts = split(tree.right, node);
+            tree.right = parts[0];
+            tree.updateSize();
+            return new Node[]{tree, parts[1]};
+        }
+
+        Node[] parts = split(tree.left, node);
+        tree.left = parts[1];
+        tree.updateSize();
+        return new Node[]{parts[0], tree};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.updateSize();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.updateSize();
+        return right;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static class Node {
+        private final UUID playerUuid;
+        private final long playtime;
+        private final int priority;
+        private String playerName;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(UUID playerUuid, String playerName, long playtime, int priority) {
+            this.playerUuid = playerUuid;
+            this.playerName = playerName;
+            this.playtime = playtime;
+            this.priority = priority;
+        }
+
+        private void updateSize() {
+            size = 1 + PlaytimeLeaderboard.size(left) + PlaytimeLeaderboard.size(right);
+        }
+    }
+}
@@ -1,245 +1,674 @@
 package com.gilbertomorales.howlyvelocity.managers;
 
 import com.gilbertomorales.howlyvelocity.utils.TimeUtils;
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
 import com.velocitypowered.api.proxy.Player;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class PlaytimeManager {
 
+    // Com o diário de sessões a queda do proxy perde no máximo um segundo, então o banco pode ser sincronizado com menos frequência
+    private static final long SAVE_INTERVAL_SECONDS = 300;
+    // Quantidade de primeiros colocados mantidos no ranking em memória
+    private static final int LEADERBOARD_SIZE = 1000;
+    // Espera antes de tentar de novo a recuperação e o carregamento do ranking quando falham na inicialização
+    private static final long RANKING_RETRY_SECONDS = 30;
+    // Chaves diárias e semanais mais antigas que isso são apagadas; as mensais são poucas e ficam como histórico
+    private static final int PERIOD_RETENTION_DAYS = 90;
+    private static final int MAX_IN_PARAMS = 500;
+
     private final DatabaseManager databaseManager;
+    private final PlayerDataManager playerDataManager;
     
     // Cache para sessões ativas (UUID -> timestamp de início da sessão)
     private final Map<UUID, Long> activeSessions = new ConcurrentHashMap<>();
-    // Cache para tempo total (UUID -> tempo total em milissegundos)
+    // Cache para tempo total (UUID -> tempo total em milissegundos), apenas de jogadores online e consultados
+    // recentemente; os demais são descartados a cada salvamento periódico
     private final Map<UUID, Long> totalTimeCache = new ConcurrentHashMap<>();
+    // Ranking em memória dos primeiros colocados, mantido junto com o cache de tempo total
+    private final PlaytimeLeaderboard leaderboard = new PlaytimeLeaderboard(LEADERBOARD_SIZE);
+    // Tempo jogado ainda não gravado (UUID -> milissegundos), somado ao banco em lote a cada salvamento.
+    // Gravar apenas a diferença permite que vários proxies atualizem o mesmo jogador sem sobrescrever um ao outro
+    private final Map<UUID, Long> pendingTotalDeltas = new ConcurrentHashMap<>();
+    // Tempo jogado ainda não somado aos períodos; separado do total porque o reset não afeta os períodos
+    private final Map<AccrualKey, Long> pendingPeriodDeltas = new ConcurrentHashMap<>();
+    // Jogadores cujo tempo está sendo gravado agora (já saiu de pendingTotalDeltas, ainda não confirmado no banco)
+    private final Set<UUID> inFlightTotals = ConcurrentHashMap.newKeySet();
+    // Fim da fila de gravações de tempo (ver enqueueTimeWrite)
+    private CompletableFuture<Void> timeWrites = CompletableFuture.completedFuture(null);
     
     // Executor para salvar periodicamente
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final PlaytimeJournal journal;
 
-    public PlaytimeManager(DatabaseManager databaseManager) {
+    public PlaytimeManager(DatabaseManager databaseManager, PlayerDataManager playerDataManager, Path dataDirectory) {
         this.databaseManager = databaseManager;
-        // Carregar cache de tempo total ao iniciar
-        loadTotalTimeCache();
-        // Iniciar salvamento periódico a cada 30 segundos
+        this.playerDataManager = playerDataManager;
+        this.journal = new PlaytimeJournal(dataDirectory.resolve("playtime.journal"));
+
+        // Ler o diário da execução anterior antes que novas sessões sejam registradas
+        Map<UUID, Long> sessionEnds = null;
+        try {
+            sessionEnds = journal.open();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        // Recuperar sessões interrompidas e carregar o ranking ao iniciar
+        recoverSessionsAndLoadRanking(sessionEnds, System.currentTimeMillis());
+        // Iniciar batimento do diário e salvamento periódico
         startPeriodicSave();
     }
     
     /**
-     * Carrega o cache de tempo total do banco de dados
+     * Soma ao total o tempo das sessões interrompidas na execução anterior e carrega os primeiros colocados do ranking.
+     * O tempo total dos demais jogadores é lido apenas no login ou quando consultado
+     * @param sessionEnds Saída de cada sessão segundo o diário, ou null se não havia diário (nada é recuperado)
+     * @param bootTime Sessões iniciadas a partir deste momento já são desta execução
      */
-    private void loadTotalTimeCache() {
-        CompletableFuture.runAsync(() -> {
+    private void recoverSessionsAndLoadRanking(Map<UUID, Long> sessionEnds, long bootTime) {
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             try (Connection conn = databaseManager.getConnection()) {
-                String sql = "SELECT player_uuid, total_time, session_start FROM player_playtime";
-                
-                try (PreparedStatement stmt = conn.prepareStatement(sql);
-                     ResultSet rs = stmt.executeQuery()) {
-                    
+                recoverSessions(conn, sessionEnds, bootTime);
+                // Só agora as sessões recuperadas podem sair do diário
+                journal.releaseRecovered();
+                loadRanking(conn);
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao recuperar sessões e carregar o ranking", e);
+            }
+        }).exceptionally(e -> {
+            e.printStackTrace();
+            // Sem nova tentativa o ranking ficaria parcial até reiniciar; repetir é seguro, pois a recuperação
+            // só fecha sessões cujo session_start ainda é o lido
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(() -> recoverSessionsAndLoadRanking(sessionEnds, bootTime), RANKING_RETRY_SECONDS, TimeUnit.SECONDS);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Recupera apenas as sessões registradas no diário deste proxy: linhas com session_start aberto de jogadores
+     * fora do diário podem pertencer a outro proxy que usa o mesmo banco e não são tocadas
+     */
+    private void recoverSessions(Connection conn, Map<UUID, Long> sessionEnds, long bootTime) throws SQLException {
+        if (sessionEnds == null || sessionEnds.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Integer> playerIds = playerDataManager.resolvePlayerIds(conn, sessionEnds.keySet());
+        Map<Integer, UUID> uuidsById = new HashMap<>();
+        playerIds.forEach((playerUuid, playerId) -> uuidsById.put(playerId, playerUuid));
+
+        // session_start de cada jogador do diário (tempo desde o último salvamento, ainda fora do total)
+        Map<Integer, Long> sessionStarts = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(uuidsById.keySet());
+        for (int start = 0; start < ids.size(); start += MAX_IN_PARAMS) {
+            List<Integer> chunk = ids.subList(start, Math.min(start + MAX_IN_PARAMS, ids.size()));
+            String sql = "SELECT player_id, session_start FROM player_playtime " +
+                    "WHERE session_start IS NOT NULL AND session_start < ? AND player_id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, bootTime);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 2, chunk.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        try {
-                            UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
-                            long totalTime = rs.getLong("total_time");
-                            Long sessionStart = rs.getObject("session_start", Long.class);
-                            
-                            // Carregar tempo total no cache
-                            totalTimeCache.put(playerUuid, totalTime);
-                            
-                            // Se havia uma sessão ativa quando o servidor foi fechado,
-                            // considerar esse tempo como perdido e limpar a sessão
-                            if (sessionStart != null) {
-                                // Calcular tempo da sessão perdida
-                                long currentTime = System.currentTimeMillis();
-                                long sessionTime = currentTime - sessionStart;
-                                
-                                // Se a sessão foi há menos de 5 minutos, considerar como válida
-                                // (caso o servidor tenha sido reiniciado rapidamente)
-                                if (sessionTime < 300000) { // 5 minutos
-                                    totalTime += sessionTime;
-                                    totalTimeCache.put(playerUuid, totalTime);
-                                    
-                                    // Atualizar no banco
-                                    updateTotalTimeInDatabase(playerUuid, totalTime, null);
-                                } else {
-                                    // Sessão muito antiga, apenas limpar
-                                    updateTotalTimeInDatabase(playerUuid, totalTime, null);
-                                }
-                            }
-                        } catch (IllegalArgumentException e) {
-                            // Ignorar UUIDs inválidos
-                        }
+                        sessionStarts.put(rs.getInt("player_id"), rs.getLong("session_start"));
                     }
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
             }
-        });
+        }
+
+        if (sessionStarts.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Long> recoveredStarts = new HashMap<>();
+        conn.setAutoCommit(false);
+        try {
+            // Soma e fecha a sessão no mesmo comando; a condição em session_start evita tocar numa sessão
+            // que outro proxy tenha aberto para o jogador nesse meio tempo
+            String sql = "UPDATE player_playtime SET total_time = total_time + ?, session_start = NULL, last_updated = ? " +
+                    "WHERE player_id = ? AND session_start = ?";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Long> entry : sessionStarts.entrySet()) {
+                    UUID playerUuid = uuidsById.get(entry.getKey());
+                    long sessionTime = Math.max(0L, sessionEnds.get(playerUuid) - entry.getValue());
+
+                    stmt.setLong(1, sessionTime);
+                    stmt.setLong(2, bootTime);
+                    stmt.setInt(3, entry.getKey());
+                    stmt.setLong(4, entry.getValue());
+                    stmt.addBatch();
+
+                    if (sessionTime > 0) {
+                        recoveredStarts.put(playerUuid, entry.getValue());
+                    }
+                }
+                stmt.executeBatch();
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+
+        recoveredStarts.forEach((playerUuid, sessionStart) -> addPeriodTime(playerUuid, sessionStart, sessionEnds.get(playerUuid)));
+    }
+
+    private void loadRanking(Connection conn) throws SQLException {
+        // Lido já ordenado pelo índice de total_time
+        String sql = "SELECT p.uuid, p.name, pt.total_time FROM player_playtime pt " +
+                "JOIN players p ON p.id = pt.player_id " +
+                "ORDER BY pt.total_time DESC " +
+                "LIMIT " + LEADERBOARD_SIZE;
+
+        List<PlaytimeEntry> entries = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                UUID playerUuid = UuidCodec.get(rs, "uuid");
+                if (playerUuid != null) {
+                    entries.add(new PlaytimeEntry(playerUuid, rs.getString("name"), rs.getLong("total_time")));
+                }
+            }
+        }
+
+        leaderboard.seed(entries, entries.size() < LEADERBOARD_SIZE);
     }
     
     /**
-     * Inicia o salvamento periódico das sessões ativas
+     * Inicia o batimento do diário (a cada segundo) e o salvamento periódico das sessões ativas
      */
     private void startPeriodicSave() {
+        scheduler.scheduleAtFixedRate(() -> journal.heartbeat(System.currentTimeMillis()), 0, 1, TimeUnit.SECONDS);
+
         scheduler.scheduleAtFixedRate(() -> {
             try {
                 saveActiveSessions();
             } catch (Exception e) {
                 e.printStackTrace();
             }
-        }, 30, 30, TimeUnit.SECONDS);
+        }, SAVE_INTERVAL_SECONDS, SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        scheduler.scheduleAtFixedRate(this::pruneOldPeriods, SAVE_INTERVAL_SECONDS, TimeUnit.DAYS.toSeconds(1), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Apaga as chaves diárias e semanais antigas de player_playtime_periods, que senão cresceria para sempre.
+     * As chaves de um tipo ordenam como texto na ordem das datas, então basta um intervalo no índice de period_key
+     */
+    private void pruneOldPeriods() {
+        LocalDate cutoff = LocalDate.now().minusDays(PERIOD_RETENTION_DAYS);
+        String sql = "DELETE FROM player_playtime_periods WHERE period_key >= ? AND period_key < ?";
+
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (PlaytimePeriod period : new PlaytimePeriod[]{PlaytimePeriod.DAILY, PlaytimePeriod.WEEKLY}) {
+                    String cutoffKey = period.getKey(cutoff);
+                    stmt.setString(1, cutoffKey.substring(0, 1));
+                    stmt.setString(2, cutoffKey);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
     }
     
     /**
      * Salva o progresso das sessões ativas no banco de dados
      */
     private void saveActiveSessions() {
-        if (activeSessions.isEmpty()) {
-            return;
+        synchronized (this) {
+            accrueActiveSessions();
         }
-        
+        flushPendingTime();
+    }
+
+    // Chamado com o lock, para não se intercalar com um reset
+    private void accrueActiveSessions() {
         long currentTime = System.currentTimeMillis();
-        
-        try (Connection conn = databaseManager.getConnection()) {
-            String sql = "UPDATE player_playtime SET total_time = ?, last_updated = ? WHERE player_uuid = ?";
+
+        for (Map.Entry<UUID, Long> entry : activeSessions.entrySet()) {
+            UUID playerUuid = entry.getKey();
+            Long sessionStart = entry.getValue();
             
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                for (Map.Entry<UUID, Long> entry : activeSessions.entrySet()) {
-                    UUID playerUuid = entry.getKey();
-                    Long sessionStart = entry.getValue();
-                    
-                    if (sessionStart != null) {
-                        long sessionTime = currentTime - sessionStart;
-                        long cachedTotal = totalTimeCache.getOrDefault(playerUuid, 0L);
-                        long newTotal = cachedTotal + sessionTime;
-                        
-                        stmt.setLong(1, newTotal);
-                        stmt.setLong(2, currentTime);
-                        stmt.setString(3, playerUuid.toString());
-                        stmt.addBatch();
-                        
-                        // Atualizar cache
-                        totalTimeCache.put(playerUuid, newTotal);
-                        // Atualizar início da sessão
-                        activeSessions.put(playerUuid, currentTime);
-                    }
-                }
+            if (sessionStart != null) {
+                long sessionTime = currentTime - sessionStart;
+                long cachedTotal = totalTimeCache.getOrDefault(playerUuid, 0L);
                 
-                stmt.executeBatch();
+                // Atualizar cache
+                setCachedTotal(playerUuid, null, cachedTotal + sessionTime);
+                addPendingTime(playerUuid, sessionStart, currentTime);
+                // Atualizar início da sessão
+                activeSessions.put(playerUuid, currentTime);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
-    
+
     /**
-     * Atualiza o tempo total no banco de dados
+     * Descarta do cache quem não está online; com escrita pendente ou em andamento o total ainda é mais novo que o do banco
      */
-    private void updateTotalTimeInDatabase(UUID playerUuid, long totalTime, Long sessionStart) {
-        CompletableFuture.runAsync(() -> {
-            try (Connection conn = databaseManager.getConnection()) {
-                String sql = "UPDATE player_playtime SET total_time = ?, session_start = ?, last_updated = ? WHERE player_uuid = ?";
-                
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setLong(1, totalTime);
-                    if (sessionStart != null) {
-                        stmt.setLong(2, sessionStart);
-                    } else {
-                        stmt.setNull(2, java.sql.Types.BIGINT);
+    private void evictOfflinePlayers() {
+        totalTimeCache.keySet().removeIf(playerUuid -> !activeSessions.containsKey(playerUuid) && !hasPendingWrite(playerUuid));
+    }
+
+    private void addPendingTime(UUID playerUuid, long from, long to) {
+        pendingTotalDeltas.merge(playerUuid, to - from, Long::sum);
+        addPeriodTime(playerUuid, from, to);
+    }
+
+    /**
+     * Acumula o tempo jogado no dia em que foi jogado, dividindo na meia-noite, para que um salvamento feito
+     * depois da virada não jogue o tempo do dia anterior no período novo
+     */
+    private void addPeriodTime(UUID playerUuid, long from, long to) {
+        ZoneId zone = ZoneId.systemDefault();
+        while (from < to) {
+            LocalDate date = Instant.ofEpochMilli(from).atZone(zone).toLocalDate();
+            long nextDay = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            long end = Math.min(to, nextDay);
+
+            pendingPeriodDeltas.merge(new AccrualKey(playerUuid, date), end - from, Long::sum);
+            from = end;
+        }
+    }
+
+    private boolean hasPendingWrite(UUID playerUuid) {
+        return pendingTotalDeltas.containsKey(playerUuid) || inFlightTotals.contains(playerUuid);
+    }
+
+    /**
+     * Enfileira uma gravação de tempo. Salvamentos, reconexões e resets rodam um de cada vez, na ordem em que foram
+     * pedidos, e cada um só drena o tempo pendente quando chega a sua vez
+     */
+    private synchronized <T> CompletableFuture<T> enqueueTimeWrite(DatabasePriority priority, Supplier<T> task) {
+        CompletableFuture<T> result = timeWrites.thenCompose(ignored -> databaseManager.supplyAsync(priority, task));
+        timeWrites = result.handle((value, error) -> null);
+        return result;
+    }
+
+    private CompletableFuture<Void> flushPendingTime() {
+        return enqueueTimeWrite(DatabasePriority.BACKGROUND, () -> {
+            writePendingTime(null);
+            return null;
+        });
+    }
+
+    /**
+     * Grava o início da sessão de quem reconectou na mesma transação que o tempo ainda pendente da sessão anterior,
+     * para que uma queda nesse intervalo não faça a recuperação contar só a partir do novo início
+     */
+    private void flushPlayerTime(UUID playerUuid) {
+        enqueueTimeWrite(DatabasePriority.BACKGROUND, () -> {
+            writePendingTime(playerUuid);
+            return null;
+        });
+    }
+
+    /**
+     * Grava em uma única transação o tempo jogado desde o último salvamento: soma ao total (total_time + ?)
+     * e aos períodos (dia, semana e mês) em que foi jogado. A virada de período não exige nenhuma varredura: a próxima
+     * soma apenas cai em uma nova chave. Em seguida relê o total dos jogadores online, que pode incluir o
+     * tempo gravado por outros proxies
+     * @param onlyPlayer Grava apenas este jogador (com session_start mesmo sem tempo pendente), ou null para todos
+     */
+    private void writePendingTime(UUID onlyPlayer) {
+        long snapshotTime = System.currentTimeMillis();
+        Map<UUID, Long> totalDeltas;
+        Map<AccrualKey, Long> periodDeltas;
+        Set<UUID> playerUuids = new HashSet<>();
+
+        if (onlyPlayer == null) {
+            totalDeltas = drain(pendingTotalDeltas, key -> true);
+            periodDeltas = drain(pendingPeriodDeltas, key -> true);
+            playerUuids.addAll(activeSessions.keySet());
+        } else {
+            totalDeltas = drain(pendingTotalDeltas, onlyPlayer::equals);
+            totalDeltas.putIfAbsent(onlyPlayer, 0L);
+            periodDeltas = drain(pendingPeriodDeltas, key -> key.playerUuid.equals(onlyPlayer));
+        }
+
+        playerUuids.addAll(totalDeltas.keySet());
+        periodDeltas.keySet().forEach(key -> playerUuids.add(key.playerUuid));
+        if (playerUuids.isEmpty()) {
+            evictOfflinePlayers();
+            return;
+        }
+        inFlightTotals.addAll(totalDeltas.keySet());
+
+        Map<UUID, Long> storedTotals;
+        try (Connection conn = databaseManager.getConnection()) {
+            Map<UUID, Integer> playerIds = playerDataManager.resolvePlayerIds(conn, playerUuids);
+
+            conn.setAutoCommit(false);
+            try {
+                writeTotalDeltas(conn, totalDeltas, playerIds, snapshotTime);
+                writePeriodDeltas(conn, periodDeltas, playerIds);
+                storedTotals = readOnlineTotals(conn, playerIds);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            // Devolver para a próxima tentativa, para não perder o tempo jogado
+            totalDeltas.forEach((playerUuid, delta) -> {
+                if (delta > 0) {
+                    pendingTotalDeltas.merge(playerUuid, delta, Long::sum);
+                }
+            });
+            periodDeltas.forEach((key, delta) -> pendingPeriodDeltas.merge(key, delta, Long::sum));
+            inFlightTotals.removeAll(totalDeltas.keySet());
+            return;
+        }
+
+        inFlightTotals.removeAll(totalDeltas.keySet());
+        reconcile(storedTotals);
+        // Só depois da gravação: antes disso uma consulta ao banco leria o total antigo
+        evictOfflinePlayers();
+
+        // Sessões encerradas antes deste lote já estão no banco e não precisam mais do diário
+        journal.releaseEnded(snapshotTime, this::hasPendingWrite);
+    }
+
+    private static <K> Map<K, Long> drain(Map<K, Long> pending, Predicate<K> selector) {
+        Map<K, Long> drained = new HashMap<>();
+        for (K key : pending.keySet()) {
+            if (!selector.test(key)) {
+                continue;
+            }
+            Long delta = pending.remove(key);
+            if (delta != null && delta > 0) {
+                drained.put(key, delta);
+            }
+        }
+        return drained;
+    }
+
+    private void writeTotalDeltas(Connection conn, Map<UUID, Long> totalDeltas, Map<UUID, Integer> playerIds,
+                                  long snapshotTime) throws SQLException {
+        if (totalDeltas.isEmpty()) {
+            return;
+        }
+
+        // session_start vai junto com a soma: marca até onde a sessão já está no total, para a recuperação após uma queda
+        String sql = "UPDATE player_playtime SET total_time = total_time + ?, session_start = ?, last_updated = ? WHERE player_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<UUID, Long> entry : totalDeltas.entrySet()) {
+                Integer playerId = playerIds.get(entry.getKey());
+                if (playerId == null) {
+                    continue;
+                }
+
+                Long sessionStart = activeSessions.get(entry.getKey());
+                stmt.setLong(1, entry.getValue());
+                if (sessionStart != null) {
+                    stmt.setLong(2, sessionStart);
+                } else {
+                    stmt.setNull(2, java.sql.Types.BIGINT);
+                }
+                stmt.setLong(3, snapshotTime);
+                stmt.setInt(4, playerId);
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        }
+    }
+
+    private void writePeriodDeltas(Connection conn, Map<AccrualKey, Long> periodDeltas, Map<UUID, Integer> playerIds)
+            throws SQLException {
+        if (periodDeltas.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(periodDeltaSql())) {
+            for (Map.Entry<AccrualKey, Long> entry : periodDeltas.entrySet()) {
+                Integer playerId = playerIds.get(entry.getKey().playerUuid);
+                if (playerId == null) {
+                    continue;
+                }
+
+                // Cada período pela data em que o tempo foi jogado, não pela data do salvamento
+                for (PlaytimePeriod period : PlaytimePeriod.values()) {
+                    stmt.setString(1, period.getKey(entry.getKey().date));
+                    stmt.setInt(2, playerId);
+                    stmt.setLong(3, entry.getValue());
+                    stmt.addBatch();
+                }
+            }
+
+            stmt.executeBatch();
+        }
+    }
+
+    private Map<UUID, Long> readOnlineTotals(Connection conn, Map<UUID, Integer> playerIds) throws SQLException {
+        Map<Integer, UUID> onlineIds = new HashMap<>();
+        for (UUID playerUuid : activeSessions.keySet()) {
+            Integer playerId = playerIds.get(playerUuid);
+            if (playerId != null) {
+                onlineIds.put(playerId, playerUuid);
+            }
+        }
+
+        Map<UUID, Long> storedTotals = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(onlineIds.keySet());
+
+        for (int start = 0; start < ids.size(); start += MAX_IN_PARAMS) {
+            List<Integer> chunk = ids.subList(start, Math.min(start + MAX_IN_PARAMS, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT player_id, total_time FROM player_playtime WHERE player_id IN (" + placeholders + ")";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        storedTotals.put(onlineIds.get(rs.getInt("player_id")), rs.getLong("total_time"));
                     }
-                    stmt.setLong(3, System.currentTimeMillis());
-                    stmt.setString(4, playerUuid.toString());
-                    stmt.executeUpdate();
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
+            }
+        }
+
+        return storedTotals;
+    }
+
+    /**
+     * Alinha o cache ao total do banco (que inclui o tempo gravado por outros proxies), somando o que este
+     * proxy ainda não gravou
+     */
+    private void reconcile(Map<UUID, Long> storedTotals) {
+        storedTotals.forEach((playerUuid, storedTotal) -> {
+            if (activeSessions.containsKey(playerUuid)) {
+                setCachedTotal(playerUuid, null, storedTotal + pendingTotalDeltas.getOrDefault(playerUuid, 0L));
             }
         });
     }
 
+    private String periodDeltaSql() {
+        if (databaseManager.isMySQL()) {
+            return "INSERT INTO player_playtime_periods (period_key, player_id, playtime) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE playtime = playtime + VALUES(playtime)";
+        } else if (databaseManager.isH2()) {
+            return "MERGE INTO player_playtime_periods pp " +
+                    "USING (VALUES (CAST(? AS VARCHAR(16)), CAST(? AS INT), CAST(? AS BIGINT))) s(period_key, player_id, playtime) " +
+                    "ON pp.period_key = s.period_key AND pp.player_id = s.player_id " +
+                    "WHEN MATCHED THEN UPDATE SET playtime = pp.playtime + s.playtime " +
+                    "WHEN NOT MATCHED THEN INSERT (period_key, player_id, playtime) VALUES (s.period_key, s.player_id, s.playtime)";
+        } else {
+            // SQLite
+            return "INSERT INTO player_playtime_periods (period_key, player_id, playtime) VALUES (?, ?, ?) " +
+                    "ON CONFLICT(period_key, player_id) DO UPDATE SET playtime = playtime + excluded.playtime";
+        }
+    }
+    
+    /**
+     * Usa o tempo total lido no login, evitando uma nova consulta ao iniciar a sessão
+     */
+    public void cacheStoredPlaytime(UUID playerUuid, long storedTotal) {
+        // O cache pode já ter um total mais novo ainda não gravado
+        mergeCachedTotal(playerUuid, null, storedTotal);
+    }
+
     /**
      * Inicia uma sessão para um jogador
      */
-    public void startSession(UUID playerUuid) {
+    public void startSession(UUID playerUuid, String playerName) {
         long currentTime = System.currentTimeMillis();
         activeSessions.put(playerUuid, currentTime);
+        journal.sessionStarted(playerUuid);
+
+        // Jogador já conhecido: a linha existe, basta gravar o novo início de sessão junto com o tempo pendente
+        Long cachedTotal = totalTimeCache.get(playerUuid);
+        if (cachedTotal != null) {
+            // Mantém o nome do ranking atualizado
+            mergeCachedTotal(playerUuid, playerName, cachedTotal);
+            flushPlayerTime(playerUuid);
+            return;
+        }
         
         // Atualizar no banco de dados
-        CompletableFuture.runAsync(() -> {
+        databaseManager.runAsync(DatabasePriority.LOGIN, () -> {
             try (Connection conn = databaseManager.getConnection()) {
-                // Primeiro verificar se o jogador já existe na tabela
-                String checkSql = "SELECT total_time FROM player_playtime WHERE player_uuid = ?";
-                
-                try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                    checkStmt.setString(1, playerUuid.toString());
-                    ResultSet rs = checkStmt.executeQuery();
-                    
-                    if (rs.next()) {
-                        // Jogador existe, atualizar a sessão
-                        long existingTotal = rs.getLong("total_time");
-                        totalTimeCache.put(playerUuid, existingTotal);
-                        
-                        String updateSql = "UPDATE player_playtime SET session_start = ?, last_updated = ? WHERE player_uuid = ?";
-                        try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                            updateStmt.setLong(1, currentTime);
-                            updateStmt.setLong(2, currentTime);
-                            updateStmt.setString(3, playerUuid.toString());
-                            updateStmt.executeUpdate();
-                        }
-                    } else {
-                        // Jogador não existe, inserir novo registro
-                        String insertSql = "INSERT INTO player_playtime (player_uuid, total_time, session_start, last_updated) VALUES (?, 0, ?, ?)";
-                        
-                        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                            insertStmt.setString(1, playerUuid.toString());
-                            insertStmt.setLong(2, currentTime);
-                            insertStmt.setLong(3, currentTime);
-                            insertStmt.executeUpdate();
-                            
-                            // Inicializar o cache
-                            totalTimeCache.put(playerUuid, 0L);
-                        }
-                    }
-                }
+                long existingTotal = upsertSessionStart(conn, playerUuid, currentTime);
+                // O cache pode já ter um total mais novo ainda não gravado
+                mergeCachedTotal(playerUuid, playerName, existingTotal);
             } catch (SQLException e) {
                 e.printStackTrace();
             }
         });
     }
 
+    /**
+     * Cria o registro de tempo (total zero) ou marca o início da sessão, em um único comando atômico
+     * @return Tempo total já salvo no banco
+     */
+    private long upsertSessionStart(Connection conn, UUID playerUuid, long currentTime) throws SQLException {
+        int playerId = playerDataManager.resolvePlayerId(conn, playerUuid);
+        if (playerId < 0) {
+            return 0L;
+        }
+
+        if (databaseManager.isMySQL()) {
+            // LAST_INSERT_ID(total_time) devolve o total existente como chave gerada; numa inserção não há chave (total zero)
+            String sql = "INSERT INTO player_playtime (player_id, total_time, session_start, last_updated) VALUES (?, 0, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE session_start = VALUES(session_start), last_updated = VALUES(last_updated), " +
+                    "total_time = LAST_INSERT_ID(total_time)";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, playerId);
+                stmt.setLong(2, currentTime);
+                stmt.setLong(3, currentTime);
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    return generatedKeys.next() ? generatedKeys.getLong(1) : 0L;
+                }
+            }
+        }
+
+        String sql;
+        if (databaseManager.isH2()) {
+            sql = "SELECT total_time FROM FINAL TABLE (" +
+                    "MERGE INTO player_playtime pt USING (VALUES (CAST(? AS INT), CAST(? AS BIGINT))) " +
+                    "s(player_id, session_start) ON pt.player_id = s.player_id " +
+                    "WHEN MATCHED THEN UPDATE SET session_start = s.session_start, last_updated = s.session_start " +
+                    "WHEN NOT MATCHED THEN INSERT (player_id, total_time, session_start, last_updated) " +
+                    "VALUES (s.player_id, 0, s.session_start, s.session_start))";
+        } else {
+            // SQLite
+            sql = "INSERT INTO player_playtime (player_id, total_time, session_start, last_updated) VALUES (?, 0, ?, ?) " +
+                    "ON CONFLICT(player_id) DO UPDATE SET session_start = excluded.session_start, " +
+                    "last_updated = excluded.last_updated RETURNING total_time";
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, playerId);
+            stmt.setLong(2, currentTime);
+            if (!databaseManager.isH2()) {
+                stmt.setLong(3, currentTime);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong("total_time") : 0L;
+            }
+        }
+    }
+
     /**
      * Finaliza uma sessão para um jogador
      */
-    public void endSession(UUID playerUuid) {
+    public synchronized void endSession(UUID playerUuid) {
         Long sessionStart = activeSessions.remove(playerUuid);
         if (sessionStart == null) {
             return; // Não havia sessão ativa
         }
         
-        long sessionDuration = System.currentTimeMillis() - sessionStart;
+        long endTime = System.currentTimeMillis();
+        long sessionDuration = endTime - sessionStart;
+        journal.sessionEnded(playerUuid, endTime);
         
         // Atualizar o cache
         Long currentTotal = totalTimeCache.getOrDefault(playerUuid, 0L);
         long newTotal = currentTotal + sessionDuration;
-        totalTimeCache.put(playerUuid, newTotal);
-        
-        // Atualizar tempo total no banco de dados imediatamente
-        updateTotalTimeInDatabase(playerUuid, newTotal, null);
+        setCachedTotal(playerUuid, null, newTotal);
+
+        // Somado ao total e aos períodos no próximo salvamento (que também limpa o session_start)
+        addPendingTime(playerUuid, sessionStart, endTime);
     }
 
     /**
      * Obtém o tempo total online de um jogador
      */
     public CompletableFuture<Long> getPlayerPlaytime(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        // Jogadores online (e já consultados) são respondidos direto do cache
+        Long cachedTotal = totalTimeCache.get(playerUuid);
+        if (cachedTotal != null) {
+            Long currentSessionStart = activeSessions.get(playerUuid);
+            long currentSessionTime = currentSessionStart != null ? System.currentTimeMillis() - currentSessionStart : 0L;
+            return CompletableFuture.completedFuture(cachedTotal + currentSessionTime);
+        }
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             // Verificar primeiro no cache
             Long cachedTime = totalTimeCache.get(playerUuid);
             Long sessionStart = activeSessions.get(playerUuid);
@@ -255,17 +684,23 @@ public class PlaytimeManager {
             
             // Se não estiver no cache, buscar do banco de dados
             try (Connection conn = databaseManager.getConnection()) {
-                String sql = "SELECT total_time, session_start FROM player_playtime WHERE player_uuid = ?";
+                int playerId = playerDataManager.resolvePlayerId(conn, playerUuid);
+                if (playerId < 0) {
+                    return 0L; // Jogador nunca entrou no servidor
+                }
+
+                String sql = "SELECT pt.total_time, p.name FROM player_playtime pt " +
+                        "JOIN players p ON p.id = pt.player_id WHERE pt.player_id = ?";
                 
                 try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setString(1, playerUuid.toString());
+                    stmt.setInt(1, playerId);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
                         if (rs.next()) {
                             long totalTime = rs.getLong("total_time");
                             
                             // Atualizar o cache
-                            totalTimeCache.put(playerUuid, totalTime);
+                            setCachedTotal(playerUuid, rs.getString("name"), totalTime);
                             
                             // Se há uma sessão ativa, adicionar o tempo da sessão atual
                             if (sessionStart != null) {
@@ -279,14 +714,14 @@ public class PlaytimeManager {
                 }
                 
                 // Se não encontrou registro, criar um novo com tempo zero
-                String insertSql = "INSERT INTO player_playtime (player_uuid, total_time, session_start, last_updated) VALUES (?, 0, NULL, ?)";
+                String insertSql = "INSERT INTO player_playtime (player_id, total_time, session_start, last_updated) VALUES (?, 0, NULL, ?)";
                 try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-                    stmt.setString(1, playerUuid.toString());
+                    stmt.setInt(1, playerId);
                     stmt.setLong(2, System.currentTimeMillis());
                     stmt.executeUpdate();
                     
                     // Atualizar o cache
-                    totalTimeCache.put(playerUuid, 0L);
+                    setCachedTotal(playerUuid, null, 0L);
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -297,102 +732,111 @@ public class PlaytimeManager {
     }
 
     /**
-     * Obtém o top 10 jogadores com mais tempo online
+     * Obtém o top 10 jogadores com mais tempo online, direto do ranking em memória
      */
     public CompletableFuture<List<PlaytimeEntry>> getTopPlaytime() {
-        return CompletableFuture.supplyAsync(() -> {
+        List<PlaytimeEntry> topList = new ArrayList<>();
+        long currentTime = System.currentTimeMillis();
+
+        // A ordem segue os totais do último salvamento periódico; para exibição soma-se a sessão atual
+        for (PlaytimeEntry entry : leaderboard.top(10)) {
+            Long sessionStart = activeSessions.get(entry.getPlayerUuid());
+            long totalTime = entry.getPlaytime() + (sessionStart != null ? currentTime - sessionStart : 0L);
+            topList.add(new PlaytimeEntry(entry.getPlayerUuid(), entry.getPlayerName(), totalTime));
+        }
+
+        topList.sort((x, y) -> Long.compare(y.getPlaytime(), x.getPlaytime()));
+        return CompletableFuture.completedFuture(topList);
+    }
+
+    /**
+     * Obtém o top 10 jogadores com mais tempo online no período atual (dia, semana ou mês)
+     */
+    public CompletableFuture<List<PlaytimeEntry>> getTopPlaytime(PlaytimePeriod period) {
+        String periodKey = period.getKey(LocalDate.now());
+
+        return databaseManager.supplyAsync(DatabasePriority.COMMAND, () -> {
             List<PlaytimeEntry> topList = new ArrayList<>();
-            Map<UUID, Long> currentTimes = new HashMap<>();
-            
-            // Primeiro, copiar todos os tempos do cache
-            for (Map.Entry<UUID, Long> entry : totalTimeCache.entrySet()) {
-                UUID playerUuid = entry.getKey();
-                long totalTime = entry.getValue();
-                
-                // Adicionar tempo da sessão atual se estiver online
-                Long sessionStart = activeSessions.get(playerUuid);
-                if (sessionStart != null) {
-                    long currentSessionTime = System.currentTimeMillis() - sessionStart;
-                    totalTime += currentSessionTime;
-                }
-                
-                currentTimes.put(playerUuid, totalTime);
-            }
-            
-            try (Connection conn = databaseManager.getConnection()) {
-                // Buscar nomes dos jogadores
-                String sql = "SELECT pt.player_uuid, pt.total_time, p.name " +
-                           "FROM player_playtime pt " +
-                           "JOIN players p ON pt.player_uuid = p.uuid " +
-                           "ORDER BY pt.total_time DESC " +
-                           "LIMIT 20"; // Buscar mais que 10 para caso alguns não estejam no cache
-                
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        while (rs.next()) {
-                            UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
-                            String playerName = rs.getString("name");
-                            
-                            // Usar o tempo do cache se disponível, senão usar do banco
-                            long totalTime = currentTimes.getOrDefault(playerUuid, rs.getLong("total_time"));
-                            
-                            // Adicionar tempo da sessão atual se não estiver no cache mas estiver online
-                            if (!currentTimes.containsKey(playerUuid)) {
-                                Long sessionStart = activeSessions.get(playerUuid);
-                                if (sessionStart != null) {
-                                    long currentSessionTime = System.currentTimeMillis() - sessionStart;
-                                    totalTime += currentSessionTime;
-                                }
-                            }
-                            
-                            topList.add(new PlaytimeEntry(playerUuid, playerName, totalTime));
-                        }
+
+            // Lido já ordenado pelo índice (period_key, playtime)
+            String sql = "SELECT p.uuid, p.name, pp.playtime FROM player_playtime_periods pp " +
+                    "JOIN players p ON p.id = pp.player_id " +
+                    "WHERE pp.period_key = ? " +
+                    "ORDER BY pp.playtime DESC " +
+                    "LIMIT 10";
+
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, periodKey);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        topList.add(new PlaytimeEntry(UuidCodec.get(rs, "uuid"), rs.getString("name"), rs.getLong("playtime")));
                     }
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
             }
-            
-            // Reordenar considerando sessões ativas
-            topList.sort((a, b) -> Long.compare(b.getPlaytime(), a.getPlaytime()));
-            
-            // Limitar a 10 resultados
-            if (topList.size() > 10) {
-                topList = topList.subList(0, 10);
-            }
-            
+
             return topList;
         });
     }
 
+    /**
+     * Obtém a posição do jogador no ranking de tempo online
+     * @return Posição (1 = maior tempo), ou -1 se o jogador estiver fora dos primeiros colocados
+     */
+    public int getPlayerRank(UUID playerUuid) {
+        return leaderboard.getRank(playerUuid);
+    }
+
     /**
      * Reseta o tempo online de um jogador
      */
     public CompletableFuture<Boolean> resetPlayerPlaytime(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            // Atualizar o cache
-            totalTimeCache.put(playerUuid, 0L);
-            
-            // Se o jogador estiver online, reiniciar a sessão
-            if (activeSessions.containsKey(playerUuid)) {
-                activeSessions.put(playerUuid, System.currentTimeMillis());
+        // Na fila de gravações de tempo: todo lote drenado antes do reset já foi gravado, então nada volta a somar ao total zerado
+        return enqueueTimeWrite(DatabasePriority.COMMAND, () -> {
+            Long sessionStart;
+            synchronized (this) {
+                // Atualizar o cache
+                setCachedTotal(playerUuid, null, 0L);
+
+                // Se o jogador estiver online, reiniciar a sessão
+                if (activeSessions.containsKey(playerUuid)) {
+                    activeSessions.put(playerUuid, System.currentTimeMillis());
+                }
+                sessionStart = activeSessions.get(playerUuid);
+
+                // Descartar o tempo ainda não gravado, que seria somado ao total zerado
+                pendingTotalDeltas.remove(playerUuid);
+                pendingPeriodDeltas.keySet().removeIf(key -> key.playerUuid.equals(playerUuid));
             }
-            
+
             try (Connection conn = databaseManager.getConnection()) {
-                String sql = "UPDATE player_playtime SET total_time = 0, last_updated = ? WHERE player_uuid = ?";
+                int playerId = playerDataManager.resolvePlayerId(conn, playerUuid);
+                if (playerId < 0) {
+                    return false; // Jogador nunca entrou no servidor
+                }
+
+                String sql = "UPDATE player_playtime SET total_time = 0, session_start = ?, last_updated = ? WHERE player_id = ?";
                 
                 try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setLong(1, System.currentTimeMillis());
-                    stmt.setString(2, playerUuid.toString());
+                    if (sessionStart != null) {
+                        stmt.setLong(1, sessionStart);
+                    } else {
+                        stmt.setNull(1, java.sql.Types.BIGINT);
+                    }
+                    stmt.setLong(2, System.currentTimeMillis());
+                    stmt.setInt(3, playerId);
                     
                     int rowsAffected = stmt.executeUpdate();
                     
                     // Se não afetou nenhuma linha, o jogador pode não existir na tabela
                     if (rowsAffected == 0) {
                         // Inserir um novo registro com tempo zero
-                        String insertSql = "INSERT INTO player_playtime (player_uuid, total_time, session_start, last_updated) VALUES (?, 0, NULL, ?)";
+                        String insertSql = "INSERT INTO player_playtime (player_id, total_time, session_start, last_updated) VALUES (?, 0, NULL, ?)";
                         try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                            insertStmt.setString(1, playerUuid.toString());
+                            insertStmt.setInt(1, playerId);
                             insertStmt.setLong(2, System.currentTimeMillis());
                             insertStmt.executeUpdate();
                         }
@@ -407,6 +851,23 @@ public class PlaytimeManager {
         });
     }
 
+    // Todas as alterações do tempo total passam por aqui, para manter o ranking em sincronia com o cache.
+    // O ranking é atualizado dentro do compute, então duas atualizações do mesmo jogador não se invertem
+    private void setCachedTotal(UUID playerUuid, String playerName, long totalTime) {
+        totalTimeCache.compute(playerUuid, (uuid, current) -> {
+            leaderboard.update(uuid, playerName, totalTime);
+            return totalTime;
+        });
+    }
+
+    private void mergeCachedTotal(UUID playerUuid, String playerName, long storedTotal) {
+        totalTimeCache.compute(playerUuid, (uuid, current) -> {
+            long totalTime = current != null ? Math.max(current, storedTotal) : storedTotal;
+            leaderboard.update(uuid, playerName, totalTime);
+            return totalTime;
+        });
+    }
+
     /**
      * Formata o tempo de jogo para exibição
      */
@@ -418,15 +879,7 @@ public class PlaytimeManager {
      * Finaliza o PlaytimeManager e salva todas as sessões ativas
      */
     public void shutdown() {
-        // Salvar todas as sessões ativas antes de fechar
-        saveActiveSessions();
-        
-        // Finalizar todas as sessões ativas
-        for (UUID playerUuid : new HashSet<>(activeSessions.keySet())) {
-            endSession(playerUuid);
-        }
-        
-        // Parar o scheduler
+        // Parar o scheduler antes, para que nenhum salvamento periódico comece durante o desligamento
         scheduler.shutdown();
         try {
             if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -435,6 +888,96 @@ public class PlaytimeManager {
         } catch (InterruptedException e) {
             scheduler.shutdownNow();
         }
+
+        // Finalizar todas as sessões ativas e gravar tudo em um único salvamento, aguardando-o (e os anteriores
+        // da fila) antes de fechar o diário e o banco
+        for (UUID playerUuid : new HashSet<>(activeSessions.keySet())) {
+            endSession(playerUuid);
+        }
+        try {
+            flushPendingTime().get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            e.printStackTrace();
+        }
+
+        journal.close();
+    }
+
+    /**
+     * Períodos dos rankings de tempo online
+     */
+    public enum PlaytimePeriod {
+        DAILY("diario", "Diário"),
+        WEEKLY("semanal", "Semanal"),
+        MONTHLY("mensal", "Mensal");
+
+        private final String argument;
+        private final String displayName;
+
+        PlaytimePeriod(String argument, String displayName) {
+            this.argument = argument;
+            this.displayName = displayName;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * Chave do período que contém a data (semanas ISO, começando na segunda-feira)
+         */
+        public String getKey(LocalDate date) {
+            return switch (this) {
+                case DAILY -> "d" + date;
+                case WEEKLY -> String.format("w%d-%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTHLY -> "m" + YearMonth.from(date);
+            };
+        }
+
+        public static PlaytimePeriod fromArgument(String argument) {
+            for (PlaytimePeriod period : values()) {
+                if (period.argument.equalsIgnoreCase(argument)) {
+                    return period;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Tempo pendente de um jogador em um dia, para somar aos períodos que contêm esse dia
+     */
+    private static class AccrualKey {
+        private final UUID playerUuid;
+        private final LocalDate date;
+
+        AccrualKey(UUID playerUuid, LocalDate date) {
+            this.playerUuid = playerUuid;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AccrualKey)) {
+                return false;
+            }
+            AccrualKey other = (AccrualKey) o;
+            return playerUuid.equals(other.playerUuid) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerUuid, date);
+        }
     }
 
     /**
@@ -1,7 +1,9 @@
 package com.gilbertomorales.howlyvelocity.managers;
 
+import com.gilbertomorales.howlyvelocity.api.punishment.IpBan;
 import com.gilbertomorales.howlyvelocity.api.punishment.Punishment;
 import com.gilbertomorales.howlyvelocity.api.punishment.PunishmentType;
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,43 +13,110 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class PunishmentManager {
     private static final Logger logger = LoggerFactory.getLogger(PunishmentManager.class);
+    private static final int MAX_EXPIRY_BATCH = 100;
+    // Espera antes de tentar de novo um lote de expirações que o banco recusou
+    private static final long EXPIRY_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final String SELECT_PUNISHMENTS = "SELECT pu.id, pu.type, pu.reason, pu.punisher, pu.created_at, " +
+            "pu.expires_at, pu.active, p.uuid AS player_uuid FROM punishments pu JOIN players p ON p.id = pu.player_id ";
+
     private final DatabaseManager databaseManager;
-    private final ScheduledExecutorService scheduler;
+
+    // Apenas punições e banimentos de IP temporários ativos, ordenados pelo instante de expiração
+    private final DelayQueue<PendingExpiry> pendingExpiries = new DelayQueue<>();
+    // Banimentos de IP já na fila, para que a releitura periódica do índice não os agende de novo
+    private final Set<Integer> scheduledIpBans = ConcurrentHashMap.newKeySet();
+    private final Thread expiryThread;
+    private volatile Consumer<Punishment> expiryListener;
+    private volatile Consumer<IpBan> ipBanExpiryListener;
 
     public PunishmentManager(DatabaseManager databaseManager) {
         this.databaseManager = databaseManager;
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        
-        // Iniciar limpeza automática de punições expiradas a cada 5 minutos
-        scheduler.scheduleAtFixedRate(this::cleanExpiredPunishments, 5, 5, TimeUnit.MINUTES);
+
+        // Desativar de uma vez o que expirou enquanto o proxy estava desligado
+        cleanExpiredPunishments();
+
+        this.expiryThread = new Thread(this::runExpiryLoop, "HowlyVelocity-PunishmentExpiry");
+        this.expiryThread.setDaemon(true);
+        this.expiryThread.start();
+    }
+
+    /**
+     * Define quem será notificado quando uma punição temporária expirar
+     */
+    public void setExpiryListener(Consumer<Punishment> expiryListener) {
+        this.expiryListener = expiryListener;
+    }
+
+    /**
+     * Define quem será notificado quando um banimento de IP temporário expirar
+     */
+    public void setIpBanExpiryListener(Consumer<IpBan> ipBanExpiryListener) {
+        this.ipBanExpiryListener = ipBanExpiryListener;
+    }
+
+    /**
+     * Agenda a desativação de uma punição temporária no instante exato de sua expiração
+     */
+    public void scheduleExpiry(Punishment punishment) {
+        if (punishment.isPermanent()) {
+            return;
+        }
+        pendingExpiries.add(new PendingExpiry(punishment));
+    }
+
+    /**
+     * Remove uma punição da fila de expiração (ex: desbanimento manual)
+     */
+    public void cancelExpiry(int punishmentId) {
+        pendingExpiries.removeIf(pending -> pending.punishment != null && pending.punishment.getId() == punishmentId);
+    }
+
+    /**
+     * Agenda a desativação de um banimento de IP temporário; um banimento já agendado é ignorado
+     */
+    public void scheduleIpBanExpiry(IpBan ban) {
+        if (ban.isPermanent() || !scheduledIpBans.add(ban.getId())) {
+            return;
+        }
+        pendingExpiries.add(new PendingExpiry(ban));
+    }
+
+    public void cancelIpBanExpiry(int banId) {
+        if (scheduledIpBans.remove(banId)) {
+            pendingExpiries.removeIf(pending -> pending.ipBan != null && pending.ipBan.getId() == banId);
+        }
     }
 
     public void addPunishment(Punishment punishment) {
-        String sql = "INSERT INTO punishments (player_uuid, type, reason, punisher, created_at, expires_at, active) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO punishments (player_id, type, reason, punisher, created_at, expires_at, active) " +
+                "SELECT id, ?, ?, ?, ?, ?, ? FROM players WHERE uuid = ?";
 
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, punishment.getPlayerUUID().toString());
-            stmt.setString(2, punishment.getType().name());
-            stmt.setString(3, punishment.getReason());
-            stmt.setString(4, punishment.getPunisher());
-            stmt.setLong(5, punishment.getCreatedAt());
+            stmt.setString(1, punishment.getType().name());
+            stmt.setString(2, punishment.getReason());
+            stmt.setString(3, punishment.getPunisher());
+            stmt.setLong(4, punishment.getCreatedAt());
             
             if (punishment.getExpiresAt() != null) {
-                stmt.setLong(6, punishment.getExpiresAt());
+                stmt.setLong(5, punishment.getExpiresAt());
             } else {
-                stmt.setNull(6, java.sql.Types.BIGINT);
+                stmt.setNull(5, java.sql.Types.BIGINT);
             }
             
-            stmt.setBoolean(7, punishment.isActive());
+            stmt.setBoolean(6, punishment.isActive());
+            UuidCodec.set(stmt, 7, punishment.getPlayerUUID());
 
             stmt.executeUpdate();
             logger.info("Punição adicionada: {} para jogador {}", punishment.getType(), punishment.getPlayerUUID());
@@ -58,12 +127,12 @@ public class PunishmentManager {
     }
 
     public void removePunishment(UUID playerUUID, PunishmentType type) {
-        String sql = "UPDATE punishments SET active = FALSE WHERE player_uuid = ? AND type = ? AND active = TRUE";
+        String sql = "UPDATE punishments SET active = FALSE WHERE player_id = (SELECT id FROM players WHERE uuid = ?) AND type = ? AND active = TRUE";
 
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, playerUUID.toString());
+            UuidCodec.set(stmt, 1, playerUUID);
             stmt.setString(2, type.name());
 
             int updated = stmt.executeUpdate();
@@ -77,12 +146,15 @@ public class PunishmentManager {
     }
 
     public Punishment getActivePunishment(UUID playerUUID, PunishmentType type) {
-        String sql = "SELECT * FROM punishments WHERE player_uuid = ? AND type = ? AND active = TRUE AND (expires_at IS NULL OR expires_at > ?) ORDER BY created_at DESC LIMIT 1";
+        // idx_punishments_active_lookup localiza as linhas pelo prefixo (jogador, tipo, ativa), mas o OR em expires_at
+        // impede que ele entregue a ordem de created_at: as poucas punições do jogador ainda passam por uma ordenação
+        String sql = SELECT_PUNISHMENTS + "WHERE p.uuid = ? AND pu.type = ? AND pu.active = TRUE " +
+                "AND (pu.expires_at IS NULL OR pu.expires_at > ?) ORDER BY pu.created_at DESC LIMIT 1";
 
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, playerUUID.toString());
+            UuidCodec.set(stmt, 1, playerUUID);
             stmt.setString(2, type.name());
             stmt.setLong(3, System.currentTimeMillis());
 
@@ -98,30 +170,9 @@ public class PunishmentManager {
         return null;
     }
 
-    public List<Punishment> getPlayerPunishments(UUID playerUUID) {
-        List<Punishment> punishments = new ArrayList<>();
-        String sql = "SELECT * FROM punishments WHERE player_uuid = ? ORDER BY created_at DESC";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, playerUUID.toString());
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                punishments.add(createPunishmentFromResultSet(rs));
-            }
-
-        } catch (SQLException e) {
-            logger.error("Erro ao buscar punições do jogador: " + e.getMessage(), e);
-        }
-
-        return punishments;
-    }
-
     private Punishment createPunishmentFromResultSet(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
-        UUID playerUUID = UUID.fromString(rs.getString("player_uuid"));
+        UUID playerUUID = UuidCodec.get(rs, "player_uuid");
         PunishmentType type = PunishmentType.valueOf(rs.getString("type"));
         String reason = rs.getString("reason");
         String punisher = rs.getString("punisher");
@@ -141,17 +192,105 @@ public class PunishmentManager {
         return new Punishment(id, playerUUID, type, reason, punisher, createdAt, expiresAt, active);
     }
 
+    private void runExpiryLoop() {
+        List<PendingExpiry> expired = new ArrayList<>();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                expired.add(pendingExpiries.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            // Agrupar tudo que expirou no mesmo instante em um único lote
+            pendingExpiries.drainTo(expired, MAX_EXPIRY_BATCH - 1);
+            deactivateExpired(expired);
+            expired.clear();
+        }
+    }
+
+    private void deactivateExpired(List<PendingExpiry> expired) {
+        List<PendingExpiry> punishments = new ArrayList<>();
+        List<PendingExpiry> ipBans = new ArrayList<>();
+        for (PendingExpiry pending : expired) {
+            (pending.punishment != null ? punishments : ipBans).add(pending);
+        }
+
+        // Só notificar o que foi desativado no banco; o resto volta para a fila e é tentado de novo
+        if (!punishments.isEmpty()
+                && deactivateExpiredRows("UPDATE punishments SET active = FALSE WHERE id = ? AND active = TRUE", punishments)) {
+            Consumer<Punishment> listener = expiryListener;
+            if (listener != null) {
+                for (PendingExpiry pending : punishments) {
+                    try {
+                        listener.accept(pending.punishment);
+                    } catch (Exception e) {
+                        logger.error("Erro ao notificar expiração de punição: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+
+        if (!ipBans.isEmpty()
+                && deactivateExpiredRows("UPDATE ip_bans SET active = FALSE WHERE id = ? AND active = TRUE", ipBans)) {
+            Consumer<IpBan> listener = ipBanExpiryListener;
+            for (PendingExpiry pending : ipBans) {
+                scheduledIpBans.remove(pending.ipBan.getId());
+                if (listener != null) {
+                    try {
+                        listener.accept(pending.ipBan);
+                    } catch (Exception e) {
+                        logger.error("Erro ao notificar expiração de banimento de IP: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean deactivateExpiredRows(String sql, List<PendingExpiry> expired) {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (PendingExpiry pending : expired) {
+                stmt.setInt(1, pending.id());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            return true;
+
+        } catch (SQLException e) {
+            logger.error("Erro ao desativar punições expiradas, nova tentativa em " +
+                    TimeUnit.MILLISECONDS.toSeconds(EXPIRY_RETRY_MILLIS) + "s: " + e.getMessage(), e);
+
+            long retryAt = System.currentTimeMillis() + EXPIRY_RETRY_MILLIS;
+            for (PendingExpiry pending : expired) {
+                pendingExpiries.add(pending.retryAt(retryAt));
+            }
+            return false;
+        }
+    }
+
     private void cleanExpiredPunishments() {
         String sql = "UPDATE punishments SET active = FALSE WHERE expires_at IS NOT NULL AND expires_at <= ? AND active = TRUE";
+        String ipBanSql = "UPDATE ip_bans SET active = FALSE WHERE expires_at IS NOT NULL AND expires_at <= ? AND active = TRUE";
 
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement ipBanStmt = conn.prepareStatement(ipBanSql)) {
 
-            stmt.setLong(1, System.currentTimeMillis());
+            long currentTime = System.currentTimeMillis();
+            stmt.setLong(1, currentTime);
+            ipBanStmt.setLong(1, currentTime);
             
             int updated = stmt.executeUpdate();
             if (updated > 0) {
-                logger.info("Limpeza automática: {} punições expiradas foram desativadas", updated);
+                logger.info("Limpeza inicial: {} punições expiradas foram desativadas", updated);
+            }
+
+            int updatedIpBans = ipBanStmt.executeUpdate();
+            if (updatedIpBans > 0) {
+                logger.info("Limpeza inicial: {} banimentos de IP expirados foram desativados", updatedIpBans);
             }
 
         } catch (SQLException e) {
@@ -160,16 +299,60 @@ public class PunishmentManager {
     }
 
     public void shutdown() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
+        expiryThread.interrupt();
+        try {
+            expiryThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pendingExpiries.clear();
+        scheduledIpBans.clear();
+    }
+
+    // Uma punição ou um banimento de IP (o outro campo fica null)
+    private static class PendingExpiry implements Delayed {
+        private final Punishment punishment;
+        private final IpBan ipBan;
+        // Instante a partir do qual processar: a expiração, ou depois dela em uma nova tentativa
+        private final long dueAt;
+
+        PendingExpiry(Punishment punishment) {
+            this(punishment, null, punishment.getExpiresAt());
+        }
+
+        PendingExpiry(IpBan ipBan) {
+            this(null, ipBan, ipBan.getExpiresAt());
+        }
+
+        private PendingExpiry(Punishment punishment, IpBan ipBan, long dueAt) {
+            this.punishment = punishment;
+            this.ipBan = ipBan;
+            this.dueAt = dueAt;
+        }
+
+        private PendingExpiry retryAt(long retryAt) {
+            return new PendingExpiry(punishment, ipBan, retryAt);
+        }
+
+        private int id() {
+            return punishment != null ? punishment.getId() : ipBan.getId();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            PendingExpiry that = (PendingExpiry) other;
+            int byTime = Long.compare(dueAt, that.dueAt);
+            if (byTime != 0) {
+                return byTime;
             }
+            // Punições antes de banimentos de IP, depois pelo ID
+            int byKind = Boolean.compare(punishment == null, that.punishment == null);
+            return byKind != 0 ? byKind : Integer.compare(id(), that.id());
         }
     }
 }
@@ -0,0 +1,1005 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Aplica as migrações do banco em ordem, registrando a versão atual na tabela schema_version
+ */
+public class SchemaMigrator {
+
+    // Tabelas recriadas pelas migrações 4 (UUID binário) e 5 (player_id)
+    private static final String[] UUID_TABLES = {"players", "punishments", "player_tags", "player_medals", "player_playtime"};
+    private static final String[] CHILD_TABLES = {"punishments", "player_tags", "player_medals", "player_playtime"};
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final String databaseType;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(DatabaseManager databaseManager, Logger logger, String databaseType) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.databaseType = databaseType;
+
+        // Nunca alterar uma migração já publicada, apenas adicionar novas no final
+        this.migrations = List.of(
+                new Migration(1, "tabelas iniciais", this::createBaseSchema),
+                new Migration(2, "coluna name_lower em players", this::addPlayerNameLower),
+                new Migration(3, "tags e medalhas padrão", this::seedDefaultCatalog),
+                new Migration(4, "UUIDs em formato binário", this::convertUuidsToBinary),
+                new Migration(5, "player_id nas tabelas de jogadores", this::moveChildTablesToPlayerId),
+                new Migration(6, "índice composto de punições ativas", this::addActivePunishmentIndex),
+                new Migration(7, "banimentos de IP", this::createIpBans),
+                new Migration(8, "índices do histórico de punições", this::addPunishmentHistoryIndexes),
+                new Migration(9, "listas de ignorados", this::createPlayerIgnores),
+                new Migration(10, "tempo online por período", this::createPlaytimePeriods),
+                new Migration(11, "índice de sessões abertas em player_playtime", this::addPlaytimeIndexes),
+                new Migration(12, "remoção dos backups das migrações 4 e 5", this::dropMigrationBackups)
+        );
+    }
+
+    public int getLatestVersion() {
+        return migrations.get(migrations.size() - 1).version;
+    }
+
+    /**
+     * Leva o schema até a versão mais recente; se já estiver atualizado, faz apenas uma consulta
+     */
+    public void migrate() throws SQLException {
+        long start = System.currentTimeMillis();
+
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            int currentVersion = readCurrentVersion(conn, stmt);
+            if (currentVersion >= getLatestVersion()) {
+                logger.info("Schema do banco na versão " + currentVersion + ", verificado em " + (System.currentTimeMillis() - start) + "ms");
+                return;
+            }
+
+            if (currentVersion < 0) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (version INT PRIMARY KEY, applied_at BIGINT NOT NULL)");
+                currentVersion = 0;
+            }
+
+            for (Migration migration : migrations) {
+                if (migration.version <= currentVersion) {
+                    continue;
+                }
+
+                logger.info("Aplicando migração " + migration.version + " (" + migration.description + ")...");
+                migration.step.apply(conn, stmt);
+
+                try (PreparedStatement insert = conn.prepareStatement(
+                        "INSERT INTO schema_version (version, applied_at) VALUES (?, ?)")) {
+                    insert.setInt(1, migration.version);
+                    insert.setLong(2, System.currentTimeMillis());
+                    insert.executeUpdate();
+                }
+            }
+
+            logger.info("Schema do banco atualizado para a versão " + getLatestVersion() + " em " + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+    /**
+     * @return Versão atual do schema, ou -1 se a tabela schema_version ainda não existir
+     */
+    private int readCurrentVersion(Connection conn, Statement stmt) throws SQLException {
+        // Qualquer outro erro (timeout, bloqueio, permissão) interrompe a inicialização em vez de reaplicar as migrações
+        if (!tableExists(conn, "schema_version")) {
+            return -1;
+        }
+
+        try (ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Migração 1: as tabelas (IF NOT EXISTS, para adotar bancos criados antes do controle de versão)
+    private void createBaseSchema(Connection conn, Statement stmt) throws SQLException {
+        // Schema para jogadores (com ID único)
+        if (databaseType.equals("mysql")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS players (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    uuid VARCHAR(36) UNIQUE NOT NULL,
+                    name VARCHAR(16) NOT NULL,
+                    first_join BIGINT NOT NULL,
+                    last_join BIGINT NOT NULL,
+                    
+                    INDEX idx_uuid (uuid),
+                    INDEX idx_name (name),
+                    INDEX idx_id (id)
+                )
+            """);
+        } else if (databaseType.equals("h2")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS players (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    uuid VARCHAR(36) UNIQUE NOT NULL,
+                    name VARCHAR(16) NOT NULL,
+                    first_join BIGINT NOT NULL,
+                    last_join BIGINT NOT NULL
+                )
+            """);
+
+            // Criar índices separadamente para H2
+            createIndexIfNotExists(stmt, "idx_players_uuid", "players", "uuid");
+            createIndexIfNotExists(stmt, "idx_players_name", "players", "name");
+            createIndexIfNotExists(stmt, "idx_players_id", "players", "id");
+
+        } else { // SQLite
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS players (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    uuid TEXT UNIQUE NOT NULL,
+                    name TEXT NOT NULL,
+                    first_join INTEGER NOT NULL,
+                    last_join INTEGER NOT NULL
+                )
+            """);
+        }
+
+        // Schema para punições
+        if (databaseType.equals("mysql")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS punishments (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    player_uuid VARCHAR(36) NOT NULL,
+                    type ENUM('BAN', 'KICK', 'MUTE') NOT NULL,
+                    reason TEXT NOT NULL,
+                    punisher VARCHAR(50) NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    expires_at BIGINT NULL,
+                    active BOOLEAN DEFAULT TRUE,
+                    
+                    INDEX idx_player_uuid (player_uuid),
+                    INDEX idx_type (type),
+                    INDEX idx_active (active),
+                    INDEX idx_expires_at (expires_at),
+                    INDEX idx_created_at (created_at)
+                )
+            """);
+        } else if (databaseType.equals("h2")) {
+            // H2 - criar tabela sem índices inline
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS punishments (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    player_uuid VARCHAR(36) NOT NULL,
+                    type VARCHAR(10) NOT NULL CHECK (type IN ('BAN', 'KICK', 'MUTE')),
+                    reason TEXT NOT NULL,
+                    punisher VARCHAR(50) NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    expires_at BIGINT NULL,
+                    active BOOLEAN DEFAULT TRUE
+                )
+            """);
+
+            // Criar índices separadamente para H2
+            createIndexIfNotExists(stmt, "idx_punishments_player_uuid", "punishments", "player_uuid");
+            createIndexIfNotExists(stmt, "idx_punishments_type", "punishments", "type");
+            createIndexIfNotExists(stmt, "idx_punishments_active", "punishments", "active");
+            createIndexIfNotExists(stmt, "idx_punishments_expires_at", "punishments", "expires_at");
+            createIndexIfNotExists(stmt, "idx_punishments_created_at", "punishments", "created_at");
+
+        } else { // SQLite
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS punishments (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    player_uuid TEXT NOT NULL,
+                    type TEXT NOT NULL CHECK (type IN ('BAN', 'KICK', 'MUTE')),
+                    reason TEXT NOT NULL,
+                    punisher TEXT NOT NULL,
+                    created_at INTEGER NOT NULL,
+                    expires_at INTEGER,
+                    active INTEGER DEFAULT 1
+                )
+            """);
+        }
+
+        // Schema para tags
+        if (databaseType.equals("mysql")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS available_tags (
+                    tag_id VARCHAR(50) PRIMARY KEY,
+                    display_text VARCHAR(100) NOT NULL,
+                    permission VARCHAR(100) DEFAULT '',
+                    name_color VARCHAR(10) NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    updated_at BIGINT NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_tags (
+                    player_uuid VARCHAR(36) PRIMARY KEY,
+                    tag_id VARCHAR(50) NOT NULL,
+                    updated_at BIGINT NOT NULL,
+                    
+                    INDEX idx_tag_id (tag_id),
+                    INDEX idx_updated_at (updated_at)
+                )
+            """);
+        } else if (databaseType.equals("h2")) {
+            // H2 - criar tabelas sem índices inline
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS available_tags (
+                    tag_id VARCHAR(50) PRIMARY KEY,
+                    display_text VARCHAR(100) NOT NULL,
+                    permission VARCHAR(100) DEFAULT '',
+                    name_color VARCHAR(10) NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    updated_at BIGINT NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_tags (
+                    player_uuid VARCHAR(36) PRIMARY KEY,
+                    tag_id VARCHAR(50) NOT NULL,
+                    updated_at BIGINT NOT NULL
+                )
+            """);
+
+            // Criar índices separadamente para H2
+            createIndexIfNotExists(stmt, "idx_player_tags_tag_id", "player_tags", "tag_id");
+            createIndexIfNotExists(stmt, "idx_player_tags_updated_at", "player_tags", "updated_at");
+
+        } else { // SQLite
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS available_tags (
+                    tag_id TEXT PRIMARY KEY,
+                    display_text TEXT NOT NULL,
+                    permission TEXT DEFAULT '',
+                    name_color TEXT NOT NULL,
+                    created_at INTEGER NOT NULL,
+                    updated_at INTEGER NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_tags (
+                    player_uuid TEXT PRIMARY KEY,
+                    tag_id TEXT NOT NULL,
+                    updated_at INTEGER NOT NULL,
+                    FOREIGN KEY (tag_id) REFERENCES available_tags(tag_id)
+                )
+            """);
+        }
+
+        // Schema para medalhas
+        if (databaseType.equals("mysql")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS available_medals (
+                    medal_id VARCHAR(50) PRIMARY KEY,
+                    symbol VARCHAR(10) NOT NULL,
+                    permission VARCHAR(100) DEFAULT '',
+                    color VARCHAR(10) NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    updated_at BIGINT NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_medals (
+                    player_uuid VARCHAR(36) PRIMARY KEY,
+                    medal_id VARCHAR(50) NOT NULL,
+                    updated_at BIGINT NOT NULL,
+                    
+                    INDEX idx_medal_id (medal_id),
+                    INDEX idx_updated_at (updated_at)
+                )
+            """);
+        } else if (databaseType.equals("h2")) {
+            // H2 - criar tabelas sem índices inline
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS available_medals (
+                    medal_id VARCHAR(50) PRIMARY KEY,
+                    symbol VARCHAR(10) NOT NULL,
+                    permission VARCHAR(100) DEFAULT '',
+                    color VARCHAR(10) NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    updated_at BIGINT NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_medals (
+                    player_uuid VARCHAR(36) PRIMARY KEY,
+                    medal_id VARCHAR(50) NOT NULL,
+                    updated_at BIGINT NOT NULL
+                )
+            """);
+
+            // Criar índices separadamente para H2
+            createIndexIfNotExists(stmt, "idx_player_medals_medal_id", "player_medals", "medal_id");
+            createIndexIfNotExists(stmt, "idx_player_medals_updated_at", "player_medals", "updated_at");
+
+        } else { // SQLite
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS available_medals (
+                    medal_id TEXT PRIMARY KEY,
+                    symbol TEXT NOT NULL,
+                    permission TEXT DEFAULT '',
+                    color TEXT NOT NULL,
+                    created_at INTEGER NOT NULL,
+                    updated_at INTEGER NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_medals (
+                    player_uuid TEXT PRIMARY KEY,
+                    medal_id TEXT NOT NULL,
+                    updated_at INTEGER NOT NULL,
+                    FOREIGN KEY (medal_id) REFERENCES available_medals(medal_id)
+                )
+            """);
+        }
+
+        // Schema para tempo online
+        if (databaseType.equals("mysql")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_playtime (
+                    player_uuid VARCHAR(36) PRIMARY KEY,
+                    total_time BIGINT NOT NULL DEFAULT 0,
+                    session_start BIGINT NULL,
+                    last_updated BIGINT NOT NULL,
+                    
+                    INDEX idx_total_time (total_time),
+                    INDEX idx_last_updated (last_updated)
+                )
+            """);
+        } else if (databaseType.equals("h2")) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_playtime (
+                    player_uuid VARCHAR(36) PRIMARY KEY,
+                    total_time BIGINT NOT NULL DEFAULT 0,
+                    session_start BIGINT NULL,
+                    last_updated BIGINT NOT NULL
+                )
+            """);
+
+            // Criar índices separadamente para H2
+            createIndexIfNotExists(stmt, "idx_playtime_total_time", "player_playtime", "total_time");
+            createIndexIfNotExists(stmt, "idx_playtime_last_updated", "player_playtime", "last_updated");
+
+        } else { // SQLite
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_playtime (
+                    player_uuid TEXT PRIMARY KEY,
+                    total_time INTEGER NOT NULL DEFAULT 0,
+                    session_start INTEGER NULL,
+                    last_updated INTEGER NOT NULL
+                )
+            """);
+        }
+    }
+
+    // Migração 2: nome normalizado e indexado para buscas sem diferenciar maiúsculas
+    private void addPlayerNameLower(Connection conn, Statement stmt) throws SQLException {
+        if (!columnExists(conn, "players", "name_lower")) {
+            logger.info("Adicionando coluna 'name_lower' na tabela 'players'...");
+
+            if (databaseType.equals("mysql")) {
+                stmt.execute("ALTER TABLE players ADD COLUMN name_lower VARCHAR(16) NULL, ADD INDEX idx_name_lower (name_lower)");
+            } else if (databaseType.equals("h2")) {
+                stmt.execute("ALTER TABLE players ADD COLUMN name_lower VARCHAR(16)");
+            } else { // SQLite
+                stmt.execute("ALTER TABLE players ADD COLUMN name_lower TEXT");
+            }
+
+            int updated = stmt.executeUpdate("UPDATE players SET name_lower = LOWER(name) WHERE name_lower IS NULL");
+            logger.info("Coluna 'name_lower' preenchida para " + updated + " jogadores");
+        }
+
+        if (!databaseType.equals("mysql")) {
+            createIndexIfNotExists(stmt, "idx_players_name_lower", "players", "name_lower");
+        }
+    }
+
+    // Migração 3: catálogo padrão de tags e medalhas, um lote por tabela
+    private void seedDefaultCatalog(Connection conn, Statement stmt) throws SQLException {
+        long currentTime = System.currentTimeMillis();
+
+        String[][] defaultTags = {
+                {"genio", "§6[Gênio]", "howly.tag.genio", "§6"},
+                {"heroi", "§c[Herói]", "howly.tag.heroi", "§c"},
+                {"ninja", "§7[Ninja]", "howly.tag.ninja", "§7"},
+                {"imortal", "§5[Imortal]", "howly.tag.imortal", "§5"},
+                {"medroso", "§e[Medroso]", "howly.tag.medroso", "§e"},
+                {"mago", "§9[Mago]", "howly.tag.mago", "§9"},
+                {"guerreiro", "§6[Guerreiro]", "howly.tag.guerreiro", "§6"},
+                {"assassino", "§8[Assassino]", "howly.tag.assassino", "§8"},
+                {"arqueiro", "§a[Arqueiro]", "howly.tag.arqueiro", "§a"},
+                {"mercenario", "§3[Mercenário]", "howly.tag.mercenario", "§3"},
+                {"campeao", "§b[Campeão]", "howly.tag.campeao", "§b"},
+                {"sombra", "§0[Sombra]", "howly.tag.sombra", "§0"},
+                {"anjo", "§f[Anjo]", "howly.tag.anjo", "§f"},
+                {"demonio", "§4[Demônio]", "howly.tag.demonio", "§4"},
+        };
+
+        String[][] defaultMedals = {
+                {"aguakanji", "水", "howly.medalha.aguakanji", "§b"},
+                {"ancora", "⚓", "howly.medalha.ancora", "§9"},
+                {"bandeira", "⚑", "howly.medalha.bandeira", "§f"},
+                {"carinha", "ツ", "howly.medalha.carinha", "§9"},
+                {"carta", "✉", "howly.medalha.carta", "§f"},
+                {"caveira", "☠", "howly.medalha.caveira", "§8"},
+                {"cafe", "☕", "howly.medalha.cafe", "§6"},
+                {"ceukanji", "空", "howly.medalha.ceukanji", "§9"},
+                {"coracao", "♥", "howly.medalha.coracao", "§c"},
+                {"correto", "✔", "howly.medalha.correto", "§a"},
+                {"coroa", "♔", "howly.medalha.coroa", "§6"},
+                {"diamante", "♦", "howly.medalha.diamante", "§b"},
+                {"engrenagem", "⚙", "howly.medalha.engrenagem", "§7"},
+                {"espada", "⚔", "howly.medalha.espada", "§7"},
+                {"errado", "✖", "howly.medalha.errado", "§c"},
+                {"estrela", "★", "howly.medalha.estrela", "§e"},
+                {"feliz", "㋡", "howly.medalha.feliz", "§e"},
+                {"flor", "✿", "howly.medalha.flor", "§a"},
+                {"fogo", "♨", "howly.medalha.fogo", "§c"},
+                {"fogokanji", "火", "howly.medalha.fogokanji", "§c"},
+                {"gelo", "❄", "howly.medalha.gelo", "§f"},
+                {"lua", "☽", "howly.medalha.lua", "§9"},
+                {"luakanji", "月", "howly.medalha.luakanji", "§9"},
+                {"martelo", "⚒", "howly.medalha.martelo", "§7"},
+                {"musica", "♫", "howly.medalha.musica", "§d"},
+                {"raio", "⚡", "howly.medalha.raio", "§e"},
+                {"sol", "☀", "howly.medalha.sol", "§e"},
+                {"solkanji", "日", "howly.medalha.solkanji", "§e"},
+                {"toxico", "☣", "howly.medalha.toxico", "§2"},
+                {"trevo", "♣", "howly.medalha.trevo", "§a"},
+                {"yinyang", "☯", "howly.medalha.yin_yang", "§f"}
+        };
+
+        String tagSql;
+        String medalSql;
+        if (databaseType.equals("h2")) {
+            tagSql = "MERGE INTO available_tags (tag_id, display_text, permission, name_color, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+            medalSql = "MERGE INTO available_medals (medal_id, symbol, permission, color, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+        } else {
+            // MySQL e SQLite
+            String insertOrIgnore = databaseType.equals("mysql") ? "INSERT IGNORE INTO" : "INSERT OR IGNORE INTO";
+            tagSql = insertOrIgnore + " available_tags (tag_id, display_text, permission, name_color, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+            medalSql = insertOrIgnore + " available_medals (medal_id, symbol, permission, color, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+        }
+
+        try (PreparedStatement tagStmt = conn.prepareStatement(tagSql)) {
+            // Tag padrão
+            addCatalogRow(tagStmt, new String[]{"Nenhuma", "", "", "§7"}, currentTime);
+            for (String[] tag : defaultTags) {
+                addCatalogRow(tagStmt, tag, currentTime);
+            }
+            tagStmt.executeBatch();
+        }
+
+        try (PreparedStatement medalStmt = conn.prepareStatement(medalSql)) {
+            // Medalha padrão
+            addCatalogRow(medalStmt, new String[]{"nenhuma", "", "", ""}, currentTime);
+            for (String[] medal : defaultMedals) {
+                addCatalogRow(medalStmt, medal, currentTime);
+            }
+            medalStmt.executeBatch();
+        }
+    }
+
+    private void addCatalogRow(PreparedStatement stmt, String[] row, long currentTime) throws SQLException {
+        stmt.setString(1, row[0]);
+        stmt.setString(2, row[1]);
+        stmt.setString(3, row[2]);
+        stmt.setString(4, row[3]);
+        stmt.setLong(5, currentTime);
+        stmt.setLong(6, currentTime);
+        stmt.addBatch();
+    }
+
+    // Migração 4: UUIDs passam de texto (36 caracteres) para 16 bytes, recriando cada tabela.
+    // Pode ser executada de novo após uma interrupção: tabelas já convertidas são puladas
+    private void convertUuidsToBinary(Connection conn, Statement stmt) throws SQLException {
+        rebuildTable(conn, stmt, "players", autoIncrementId() + ", " +
+                        "uuid " + binaryUuid() + " UNIQUE NOT NULL, " +
+                        "name VARCHAR(16) NOT NULL, " +
+                        "name_lower VARCHAR(16), " +
+                        "first_join BIGINT NOT NULL, " +
+                        "last_join BIGINT NOT NULL",
+                "uuid");
+        createMissingIndex(conn, stmt, "idx_players_name", "players", "name");
+        createMissingIndex(conn, stmt, "idx_players_name_lower", "players", "name_lower");
+
+        rebuildTable(conn, stmt, "punishments", autoIncrementId() + ", " +
+                        "player_uuid " + binaryUuid() + " NOT NULL, " +
+                        punishmentTypeColumn() + ", " +
+                        "reason TEXT NOT NULL, " +
+                        "punisher VARCHAR(50) NOT NULL, " +
+                        "created_at BIGINT NOT NULL, " +
+                        "expires_at BIGINT NULL, " +
+                        activeColumn(),
+                "player_uuid");
+        createMissingIndex(conn, stmt, "idx_punishments_player_uuid", "punishments", "player_uuid");
+        createMissingIndex(conn, stmt, "idx_punishments_type", "punishments", "type");
+        createMissingIndex(conn, stmt, "idx_punishments_active", "punishments", "active");
+        createMissingIndex(conn, stmt, "idx_punishments_expires_at", "punishments", "expires_at");
+        createMissingIndex(conn, stmt, "idx_punishments_created_at", "punishments", "created_at");
+
+        rebuildTable(conn, stmt, "player_tags",
+                "player_uuid " + binaryUuid() + " PRIMARY KEY, " +
+                        "tag_id VARCHAR(50) NOT NULL, " +
+                        "updated_at BIGINT NOT NULL" +
+                        (databaseType.equals("sqlite") ? ", FOREIGN KEY (tag_id) REFERENCES available_tags(tag_id)" : ""),
+                "player_uuid");
+        createMissingIndex(conn, stmt, "idx_player_tags_tag_id", "player_tags", "tag_id");
+        createMissingIndex(conn, stmt, "idx_player_tags_updated_at", "player_tags", "updated_at");
+
+        rebuildTable(conn, stmt, "player_medals",
+                "player_uuid " + binaryUuid() + " PRIMARY KEY, " +
+                        "medal_id VARCHAR(50) NOT NULL, " +
+                        "updated_at BIGINT NOT NULL" +
+                        (databaseType.equals("sqlite") ? ", FOREIGN KEY (medal_id) REFERENCES available_medals(medal_id)" : ""),
+                "player_uuid");
+        createMissingIndex(conn, stmt, "idx_player_medals_medal_id", "player_medals", "medal_id");
+        createMissingIndex(conn, stmt, "idx_player_medals_updated_at", "player_medals", "updated_at");
+
+        rebuildTable(conn, stmt, "player_playtime",
+                "player_uuid " + binaryUuid() + " PRIMARY KEY, " +
+                        "total_time BIGINT NOT NULL DEFAULT 0, " +
+                        "session_start BIGINT NULL, " +
+                        "last_updated BIGINT NOT NULL",
+                "player_uuid");
+        createMissingIndex(conn, stmt, "idx_playtime_total_time", "player_playtime", "total_time");
+        createMissingIndex(conn, stmt, "idx_playtime_last_updated", "player_playtime", "last_updated");
+
+        // Todas as tabelas convertidas: os backups não são mais necessários
+        dropBackups(stmt, "_old", UUID_TABLES);
+    }
+
+    /**
+     * Recria a tabela com a nova definição, copiando as linhas e convertendo a coluna de UUID para binário.
+     * A original fica como backup em tabela_old até o fim da migração (tabelas vazias são apenas recriadas).
+     * Os índices devem ser recriados pelo chamador.
+     * Se alguma linha tiver UUID inválido a migração é abortada, sem alterar a tabela original.
+     */
+    private void rebuildTable(Connection conn, Statement stmt, String table, String columns, String uuidColumn) throws SQLException {
+        String newTable = table + "_new";
+
+        // Execução anterior interrompida depois da cópia, entre remover a original e renomear a nova
+        if (!tableExists(conn, table) && tableExists(conn, newTable)) {
+            stmt.execute("ALTER TABLE " + newTable + " RENAME TO " + table);
+            logger.info("Tabela '" + table + "': conversão interrompida concluída");
+            return;
+        }
+
+        if (isBinaryColumn(conn, table, uuidColumn)) {
+            logger.info("Tabela '" + table + "' já está com UUIDs binários, pulando");
+            return;
+        }
+
+        stmt.execute("DROP TABLE IF EXISTS " + newTable);
+        stmt.execute("CREATE TABLE " + newTable + " (" + columns + ")");
+
+        int copied = 0;
+        int skipped = 0;
+        long maxId = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery("SELECT * FROM " + table)) {
+
+            int columnCount = rs.getMetaData().getColumnCount();
+            List<String> names = new ArrayList<>();
+            for (int i = 1; i <= columnCount; i++) {
+                names.add(rs.getMetaData().getColumnLabel(i).toLowerCase());
+            }
+
+            String placeholders = String.join(", ", Collections.nCopies(columnCount, "?"));
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO " + newTable + " (" + String.join(", ", names) + ") VALUES (" + placeholders + ")")) {
+
+                while (rs.next()) {
+                    String rawUuid = rs.getString(uuidColumn);
+                    UUID uuid = parseUuid(rawUuid);
+                    if (uuid == null) {
+                        if (skipped++ < 10) {
+                            logger.error("Tabela '" + table + "': UUID inválido '" + rawUuid + "'");
+                        }
+                        continue;
+                    }
+
+                    for (int i = 1; i <= columnCount; i++) {
+                        String name = names.get(i - 1);
+                        if (name.equals(uuidColumn)) {
+                            UuidCodec.set(insert, i, uuid);
+                        } else {
+                            insert.setObject(i, rs.getObject(i));
+                            if (name.equals("id")) {
+                                maxId = Math.max(maxId, rs.getLong(i));
+                            }
+                        }
+                    }
+                    insert.addBatch();
+
+                    if (++copied % 1000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+
+            if (skipped > 0) {
+                throw new SQLException("Tabela '" + table + "' tem " + skipped + " linhas com UUID inválido; " +
+                        "corrija-as e reinicie para concluir a migração");
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            stmt.execute("DROP TABLE IF EXISTS " + newTable);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        replaceTable(stmt, table, copied > 0 ? table + "_old" : null);
+
+        // O H2 não avança a sequência do AUTO_INCREMENT ao receber ids explícitos
+        if (databaseType.equals("h2") && maxId > 0) {
+            stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+        }
+
+        logger.info("Tabela '" + table + "' convertida: " + copied + " linhas copiadas (original em " + table + "_old)");
+    }
+
+    /**
+     * Troca a tabela pela versão tabela_new já preenchida, guardando antes uma cópia da original como backup.
+     * O backup é uma cópia (e não a original renomeada) para não levar junto os nomes de índices, que no H2 e no
+     * SQLite são globais e serão recriados na nova tabela
+     * @param backupTable Nome do backup, ou null para não guardar (tabela vazia)
+     */
+    private void replaceTable(Statement stmt, String table, String backupTable) throws SQLException {
+        if (backupTable != null) {
+            stmt.execute("DROP TABLE IF EXISTS " + backupTable);
+            stmt.execute("CREATE TABLE " + backupTable + " AS SELECT * FROM " + table);
+        }
+        stmt.execute("DROP TABLE " + table);
+        stmt.execute("ALTER TABLE " + table + "_new RENAME TO " + table);
+    }
+
+    // Migração 5: tabelas filhas referenciam players.id (4 bytes) e o UUID fica apenas em players.
+    // Pode ser executada de novo após uma interrupção: tabelas já migradas são puladas
+    private void moveChildTablesToPlayerId(Connection conn, Statement stmt) throws SQLException {
+        String playerForeignKey = "FOREIGN KEY (player_id) REFERENCES players(id)";
+
+        rebuildWithPlayerId(conn, stmt, "punishments", autoIncrementId() + ", " +
+                        "player_id INT NOT NULL, " +
+                        punishmentTypeColumn() + ", " +
+                        "reason TEXT NOT NULL, " +
+                        "punisher VARCHAR(50) NOT NULL, " +
+                        "created_at BIGINT NOT NULL, " +
+                        "expires_at BIGINT NULL, " +
+                        activeColumn() + ", " +
+                        playerForeignKey,
+                "id, player_id, type, reason, punisher, created_at, expires_at, active",
+                "x.id, p.id, x.type, x.reason, x.punisher, x.created_at, x.expires_at, x.active");
+        createMissingIndex(conn, stmt, "idx_punishments_player_id", "punishments", "player_id");
+        createMissingIndex(conn, stmt, "idx_punishments_type", "punishments", "type");
+        createMissingIndex(conn, stmt, "idx_punishments_active", "punishments", "active");
+        createMissingIndex(conn, stmt, "idx_punishments_expires_at", "punishments", "expires_at");
+        createMissingIndex(conn, stmt, "idx_punishments_created_at", "punishments", "created_at");
+
+        rebuildWithPlayerId(conn, stmt, "player_tags",
+                "player_id INT PRIMARY KEY, " +
+                        "tag_id VARCHAR(50) NOT NULL, " +
+                        "updated_at BIGINT NOT NULL, " +
+                        playerForeignKey +
+                        (databaseType.equals("sqlite") ? ", FOREIGN KEY (tag_id) REFERENCES available_tags(tag_id)" : ""),
+                "player_id, tag_id, updated_at",
+                "p.id, x.tag_id, x.updated_at");
+        createMissingIndex(conn, stmt, "idx_player_tags_tag_id", "player_tags", "tag_id");
+        createMissingIndex(conn, stmt, "idx_player_tags_updated_at", "player_tags", "updated_at");
+
+        rebuildWithPlayerId(conn, stmt, "player_medals",
+                "player_id INT PRIMARY KEY, " +
+                        "medal_id VARCHAR(50) NOT NULL, " +
+                        "updated_at BIGINT NOT NULL, " +
+                        playerForeignKey +
+                        (databaseType.equals("sqlite") ? ", FOREIGN KEY (medal_id) REFERENCES available_medals(medal_id)" : ""),
+                "player_id, medal_id, updated_at",
+                "p.id, x.medal_id, x.updated_at");
+        createMissingIndex(conn, stmt, "idx_player_medals_medal_id", "player_medals", "medal_id");
+        createMissingIndex(conn, stmt, "idx_player_medals_updated_at", "player_medals", "updated_at");
+
+        rebuildWithPlayerId(conn, stmt, "player_playtime",
+                "player_id INT PRIMARY KEY, " +
+                        "total_time BIGINT NOT NULL DEFAULT 0, " +
+                        "session_start BIGINT NULL, " +
+                        "last_updated BIGINT NOT NULL, " +
+                        playerForeignKey,
+                "player_id, total_time, session_start, last_updated",
+                "p.id, x.total_time, x.session_start, x.last_updated");
+        createMissingIndex(conn, stmt, "idx_playtime_total_time", "player_playtime", "total_time");
+        createMissingIndex(conn, stmt, "idx_playtime_last_updated", "player_playtime", "last_updated");
+
+        // Todas as tabelas migradas: os backups não são mais necessários
+        dropBackups(stmt, "_old_uuid", CHILD_TABLES);
+    }
+
+    /**
+     * Recria a tabela trocando player_uuid por player_id, copiando as linhas com um único INSERT ... SELECT.
+     * Se alguma linha não tiver jogador correspondente em players a migração é abortada, sem alterar a tabela
+     * original. A original fica como backup em tabela_old_uuid até o fim da migração (tabelas vazias são apenas
+     * recriadas); tabelas já migradas são puladas.
+     */
+    private void rebuildWithPlayerId(Connection conn, Statement stmt, String table, String columns,
+                                     String targetColumns, String sourceColumns) throws SQLException {
+        String newTable = table + "_new";
+
+        // Execução anterior interrompida depois da cópia, entre remover a original e renomear a nova
+        if (!tableExists(conn, table) && tableExists(conn, newTable)) {
+            stmt.execute("ALTER TABLE " + newTable + " RENAME TO " + table);
+            logger.info("Tabela '" + table + "': migração interrompida concluída");
+            return;
+        }
+
+        if (!columnExists(conn, table, "player_uuid")) {
+            logger.info("Tabela '" + table + "' já usa player_id, pulando");
+            return;
+        }
+
+        stmt.execute("DROP TABLE IF EXISTS " + newTable);
+        stmt.execute("CREATE TABLE " + newTable + " (" + columns + ")");
+
+        int total;
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            total = rs.next() ? rs.getInt(1) : 0;
+        }
+
+        int copied = stmt.executeUpdate("INSERT INTO " + newTable + " (" + targetColumns + ") " +
+                "SELECT " + sourceColumns + " FROM " + table + " x JOIN players p ON p.uuid = x.player_uuid");
+
+        if (total > copied) {
+            stmt.execute("DROP TABLE IF EXISTS " + newTable);
+            throw new SQLException("Tabela '" + table + "' tem " + (total - copied) + " linhas sem jogador correspondente em players; " +
+                    "cadastre os jogadores ou remova as linhas e reinicie para concluir a migração");
+        }
+
+        replaceTable(stmt, table, total > 0 ? table + "_old_uuid" : null);
+
+        // O H2 não avança a sequência do AUTO_INCREMENT ao receber ids explícitos
+        if (databaseType.equals("h2") && targetColumns.startsWith("id,")) {
+            long maxId;
+            try (ResultSet rs = stmt.executeQuery("SELECT MAX(id) FROM " + table)) {
+                maxId = rs.next() ? rs.getLong(1) : 0;
+            }
+            if (maxId > 0) {
+                stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+            }
+        }
+
+        logger.info("Tabela '" + table + "' migrada para player_id: " + copied + " linhas copiadas (original em " + table + "_old_uuid)");
+    }
+
+    // Migração 6: um índice cobre a busca de punição ativa (jogador, tipo, ativa, expiração)
+    private void addActivePunishmentIndex(Connection conn, Statement stmt) throws SQLException {
+        createMissingIndex(conn, stmt, "idx_punishments_active_lookup", "punishments",
+                "player_id, type, active, expires_at, created_at");
+
+        // Índices de baixa seletividade (ou prefixos do composto) só deixavam as escritas mais lentas
+        dropIndex(conn, stmt, "idx_punishments_player_id", "punishments");
+        dropIndex(conn, stmt, "idx_punishments_type", "punishments");
+        dropIndex(conn, stmt, "idx_punishments_active", "punishments");
+    }
+
+    // Migração 7: banimentos de IP e faixas CIDR, carregados em memória na inicialização
+    private void createIpBans(Connection conn, Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS ip_bans (" +
+                autoIncrementId() + ", " +
+                "network VARCHAR(50) NOT NULL, " +
+                "reason TEXT NOT NULL, " +
+                "punisher VARCHAR(50) NOT NULL, " +
+                "created_at BIGINT NOT NULL, " +
+                "expires_at BIGINT NULL, " +
+                activeColumn() + ")");
+        createMissingIndex(conn, stmt, "idx_ip_bans_network", "ip_bans", "network");
+        createMissingIndex(conn, stmt, "idx_ip_bans_active", "ip_bans", "active");
+    }
+
+    // Migração 8: o histórico paginado percorre (jogador ou staff, created_at, id) direto pelo índice
+    private void addPunishmentHistoryIndexes(Connection conn, Statement stmt) throws SQLException {
+        createMissingIndex(conn, stmt, "idx_punishments_history", "punishments", "player_id, created_at, id");
+        createMissingIndex(conn, stmt, "idx_punishments_punisher", "punishments", "punisher, created_at, id");
+    }
+
+    // Migração 9: listas de ignorados, antes guardadas em player_ignores.json
+    private void createPlayerIgnores(Connection conn, Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS player_ignores (" +
+                "player_id INT NOT NULL, " +
+                "ignored_id INT NOT NULL, " +
+                "created_at BIGINT NOT NULL, " +
+                "PRIMARY KEY (player_id, ignored_id), " +
+                "FOREIGN KEY (player_id) REFERENCES players(id), " +
+                "FOREIGN KEY (ignored_id) REFERENCES players(id))");
+        createMissingIndex(conn, stmt, "idx_player_ignores_ignored_id", "player_ignores", "ignored_id");
+    }
+
+    // Migração 10: tempo online acumulado por dia, semana e mês (period_key ex: d2026-10-18, w2026-42, m2026-10).
+    // O índice (period_key, playtime) entrega o ranking de um período já ordenado
+    private void createPlaytimePeriods(Connection conn, Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS player_playtime_periods (" +
+                "period_key VARCHAR(16) NOT NULL, " +
+                "player_id INT NOT NULL, " +
+                "playtime BIGINT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (period_key, player_id), " +
+                "FOREIGN KEY (player_id) REFERENCES players(id))");
+        createMissingIndex(conn, stmt, "idx_playtime_periods_ranking", "player_playtime_periods", "period_key, playtime");
+    }
+
+    // Migração 11: a recuperação de sessões busca só as abertas, sem carregar a tabela inteira
+    // (o ranking inicial já usa idx_playtime_total_time, da migração 5)
+    private void addPlaytimeIndexes(Connection conn, Statement stmt) throws SQLException {
+        createMissingIndex(conn, stmt, "idx_player_playtime_session_start", "player_playtime", "session_start");
+    }
+
+    // Migração 12: bancos que já passaram pelas migrações 4 e 5 ficaram com os backups das tabelas originais
+    private void dropMigrationBackups(Connection conn, Statement stmt) throws SQLException {
+        dropBackups(stmt, "_old", UUID_TABLES);
+        dropBackups(stmt, "_old_uuid", CHILD_TABLES);
+    }
+
+    private void dropBackups(Statement stmt, String suffix, String[] tables) throws SQLException {
+        for (String table : tables) {
+            stmt.execute("DROP TABLE IF EXISTS " + table + suffix);
+        }
+    }
+
+    private void dropIndex(Connection conn, Statement stmt, String indexName, String tableName) throws SQLException {
+        if (databaseType.equals("mysql")) {
+            // O MySQL não tem DROP INDEX IF EXISTS
+            if (indexExists(conn, tableName, indexName)) {
+                stmt.execute("DROP INDEX " + indexName + " ON " + tableName);
+            }
+        } else {
+            stmt.execute("DROP INDEX IF EXISTS " + indexName);
+        }
+    }
+
+    private UUID parseUuid(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String autoIncrementId() {
+        return databaseType.equals("sqlite") ? "id INTEGER PRIMARY KEY AUTOINCREMENT" : "id INT AUTO_INCREMENT PRIMARY KEY";
+    }
+
+    private String binaryUuid() {
+        return databaseType.equals("sqlite") ? "BLOB" : "BINARY(16)";
+    }
+
+    private String punishmentTypeColumn() {
+        return databaseType.equals("mysql")
+                ? "type ENUM('BAN', 'KICK', 'MUTE') NOT NULL"
+                : "type VARCHAR(10) NOT NULL CHECK (type IN ('BAN', 'KICK', 'MUTE'))";
+    }
+
+    private String activeColumn() {
+        return databaseType.equals("sqlite") ? "active INTEGER DEFAULT 1" : "active BOOLEAN DEFAULT TRUE";
+    }
+
+    // Índice sem IF NOT EXISTS (não suportado pelo MySQL); use createMissingIndex se ele puder já existir
+    private void createIndex(Statement stmt, String indexName, String tableName, String columnName) throws SQLException {
+        stmt.execute("CREATE INDEX " + indexName + " ON " + tableName + " (" + columnName + ")");
+    }
+
+    // Índice que pode já existir de uma execução interrompida da mesma migração
+    private void createMissingIndex(Connection conn, Statement stmt, String indexName, String tableName, String columnName) throws SQLException {
+        if (!indexExists(conn, tableName, indexName)) {
+            createIndex(stmt, indexName, tableName, columnName);
+        }
+    }
+
+    private boolean indexExists(Connection conn, String tableName, String indexName) throws SQLException {
+        for (String table : new String[]{tableName, tableName.toUpperCase()}) {
+            try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, table, false, true)) {
+                while (rs.next()) {
+                    if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean tableExists(Connection conn, String tableName) throws SQLException {
+        // H2 com DATABASE_TO_LOWER e MySQL guardam os nomes em minúsculas, os demais em maiúsculas
+        for (String table : new String[]{tableName, tableName.toUpperCase()}) {
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, table, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isBinaryColumn(Connection conn, String tableName, String columnName) throws SQLException {
+        for (String table : new String[]{tableName, tableName.toUpperCase()}) {
+            for (String column : new String[]{columnName, columnName.toUpperCase()}) {
+                try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
+                    if (rs.next()) {
+                        int dataType = rs.getInt("DATA_TYPE");
+                        String typeName = String.valueOf(rs.getString("TYPE_NAME")).toUpperCase();
+                        return dataType == Types.BINARY || dataType == Types.VARBINARY
+                                || dataType == Types.LONGVARBINARY || dataType == Types.BLOB
+                                || typeName.contains("BINARY") || typeName.contains("BLOB");
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean columnExists(Connection conn, String tableName, String columnName) {
+        try {
+            // H2 com DATABASE_TO_LOWER e MySQL guardam os nomes em minúsculas, os demais em maiúsculas
+            for (String table : new String[]{tableName, tableName.toUpperCase()}) {
+                for (String column : new String[]{columnName, columnName.toUpperCase()}) {
+                    try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            logger.warn("Erro ao verificar se coluna existe: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void createIndexIfNotExists(Statement stmt, String indexName, String tableName, String columnName) {
+        try {
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + indexName + " ON " + tableName + " (" + columnName + ")");
+        } catch (SQLException e) {
+            // Ignorar se o índice já existir
+            if (!e.getMessage().contains("already exists")) {
+                logger.warn("Erro ao criar índice " + indexName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection conn, Statement stmt) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.gilbertomorales.howlyvelocity.managers;
 
+import com.gilbertomorales.howlyvelocity.utils.UuidCodec;
 import com.velocitypowered.api.proxy.Player;
 
 import java.sql.Connection;
@@ -13,17 +14,34 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TagManager {
 
     private final DatabaseManager databaseManager;
+    private final PlayerDataManager playerDataManager;
 
     // Cache em memória para performance
     private final Map<String, TagInfo> availableTags = new ConcurrentHashMap<>();
     private final Map<UUID, String> playerTags = new ConcurrentHashMap<>();
+    private volatile ChatPrefixCache prefixCache;
 
-    public TagManager(DatabaseManager databaseManager) {
+    public TagManager(DatabaseManager databaseManager, PlayerDataManager playerDataManager) {
         this.databaseManager = databaseManager;
+        this.playerDataManager = playerDataManager;
+    }
+
+    /**
+     * Define o cache de prefixos de chat, invalidado sempre que a tag de um jogador mudar
+     */
+    public void setPrefixCache(ChatPrefixCache prefixCache) {
+        this.prefixCache = prefixCache;
+    }
+
+    private void invalidatePrefix(UUID uuid) {
+        ChatPrefixCache cache = prefixCache;
+        if (cache != null) {
+            cache.invalidate(uuid);
+        }
     }
 
     public void loadTags() {
-        CompletableFuture.runAsync(() -> {
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             try {
                 loadAvailableTagsFromDB();
                 loadPlayerTagsFromDB();
@@ -53,7 +71,7 @@ public class TagManager {
     }
 
     private void loadPlayerTagsFromDB() throws SQLException {
-        String sql = "SELECT player_uuid, tag_id FROM player_tags";
+        String sql = "SELECT p.uuid, x.tag_id FROM player_tags x JOIN players p ON p.id = x.player_id";
 
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -62,7 +80,7 @@ public class TagManager {
             playerTags.clear();
             while (rs.next()) {
                 try {
-                    UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
+                    UUID playerUuid = UuidCodec.get(rs, "uuid");
                     String tagId = rs.getString("tag_id");
                     playerTags.put(playerUuid, tagId);
                 } catch (IllegalArgumentException e) {
@@ -73,7 +91,7 @@ public class TagManager {
     }
 
     public void saveTags() {
-        CompletableFuture.runAsync(() -> {
+        databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             try {
                 saveAvailableTagsToDB();
             } catch (SQLException e) {
@@ -234,61 +252,63 @@ public class TagManager {
 
     public void setPlayerTag(UUID uuid, String tagId) {
         playerTags.put(uuid, tagId);
+        invalidatePrefix(uuid);
         setPlayerTagInDB(uuid, tagId);
     }
 
     private void setPlayerTagInDB(UUID uuid, String tagId) {
-        CompletableFuture.runAsync(() -> {
-            String sql;
-
-            if (databaseManager.isMySQL()) {
-                sql = "INSERT INTO player_tags (player_uuid, tag_id, updated_at) " +
-                        "VALUES (?, ?, ?) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "tag_id = VALUES(tag_id), " +
-                        "updated_at = VALUES(updated_at)";
-            } else if (databaseManager.isH2()) {
-                sql = "MERGE INTO player_tags (player_uuid, tag_id, updated_at) " +
-                        "KEY (player_uuid) VALUES (?, ?, ?)";
-            } else {
-                // SQLite
-                sql = "INSERT OR REPLACE INTO player_tags (player_uuid, tag_id, updated_at) " +
-                        "VALUES (?, ?, ?)";
-            }
-
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String sql;
 
-                stmt.setString(1, uuid.toString());
-                stmt.setString(2, tagId);
-                stmt.setLong(3, System.currentTimeMillis());
-                stmt.executeUpdate();
+        if (databaseManager.isMySQL()) {
+            sql = "INSERT INTO player_tags (player_id, tag_id, updated_at) " +
+                    "VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "tag_id = VALUES(tag_id), " +
+                    "updated_at = VALUES(updated_at)";
+        } else if (databaseManager.isH2()) {
+            sql = "MERGE INTO player_tags (player_id, tag_id, updated_at) " +
+                    "KEY (player_id) VALUES (?, ?, ?)";
+        } else {
+            // SQLite
+            sql = "INSERT OR REPLACE INTO player_tags (player_id, tag_id, updated_at) " +
+                    "VALUES (?, ?, ?)";
+        }
 
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        long updatedAt = System.currentTimeMillis();
+        databaseManager.enqueueWrite("player_tags", uuid, sql, stmt -> {
+            stmt.setInt(1, playerDataManager.requirePlayerId(stmt.getConnection(), uuid));
+            stmt.setString(2, tagId);
+            stmt.setLong(3, updatedAt);
         });
     }
 
+    /**
+     * Atualiza o cache com o valor lido no login do jogador
+     */
+    public void cacheLoadedTag(UUID uuid, String tagId) {
+        // Uma alteração ainda não gravada é mais recente que o valor lido do banco
+        if (databaseManager.hasPendingWrite("player_tags", uuid)) {
+            return;
+        }
+
+        if (tagId != null) {
+            playerTags.put(uuid, tagId);
+        } else {
+            playerTags.remove(uuid);
+        }
+        invalidatePrefix(uuid);
+    }
+
     public void removePlayerTag(UUID uuid) {
         playerTags.remove(uuid);
+        invalidatePrefix(uuid);
         removePlayerTagFromDB(uuid);
     }
 
     private void removePlayerTagFromDB(UUID uuid) {
-        CompletableFuture.runAsync(() -> {
-            String sql = "DELETE FROM player_tags WHERE player_uuid = ?";
-
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setString(1, uuid.toString());
-                stmt.executeUpdate();
-
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        });
+        String sql = "DELETE FROM player_tags WHERE player_id = ?";
+        databaseManager.enqueueWrite("player_tags", uuid, sql,
+                stmt -> stmt.setInt(1, playerDataManager.requirePlayerId(stmt.getConnection(), uuid)));
     }
 
     /**
@@ -349,6 +369,9 @@ public class TagManager {
 
         availableTags.put(tagId, new TagInfo(display, permission, nameColor));
         saveTags();
+        if (prefixCache != null) {
+            prefixCache.invalidateAll();
+        }
     }
 
     /**
@@ -357,10 +380,13 @@ public class TagManager {
     public void removeAvailableTag(String tagId) {
         availableTags.remove(tagId);
         saveTags();
+        if (prefixCache != null) {
+            prefixCache.invalidateAll();
+        }
     }
 
     public CompletableFuture<Void> migrateFromFilesToDatabase() {
-        return CompletableFuture.runAsync(() -> {
+        return databaseManager.runAsync(DatabasePriority.BACKGROUND, () -> {
             // Migração já foi feita, dados estão no banco
         });
     }
@@ -0,0 +1,307 @@
+package com.gilbertomorales.howlyvelocity.managers;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila de escrita atrasada: agrupa atualizações por (tabela, UUID), mantendo apenas a mais recente,
+ * e grava tudo periodicamente em lotes dentro de uma única transação. Se o lote falhar, as escritas são
+ * gravadas uma a uma e as que continuarem falhando são descartadas após algumas tentativas
+ */
+public class WriteBehindQueue {
+
+    // Tentativas de uma escrita que falha sozinha (ex: violação de chave) antes de ser descartada
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+
+    private Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    // Escritas que estão sendo gravadas agora, ainda não confirmadas no banco
+    private Map<String, PendingWrite> inFlightWrites = new LinkedHashMap<>();
+    // Escritas pendentes ou em gravação por dono ("tabela:UUID", a parte da chave antes do segundo ':')
+    private final Map<String, Integer> writesByOwner = new HashMap<>();
+    // Ações à espera de que o dono não tenha mais escritas pendentes nem em gravação
+    private final Map<String, List<Runnable>> ownerCallbacks = new HashMap<>();
+
+    public WriteBehindQueue(DatabaseManager databaseManager, Logger logger, long flushIntervalMillis) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HowlyVelocity-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enfileira uma escrita; uma escrita pendente para a mesma linha é substituída
+     */
+    public void enqueue(String table, UUID key, String sql, StatementBinder binder) {
+        enqueue(table, key.toString(), sql, binder);
+    }
+
+    /**
+     * Enfileira uma escrita identificada por uma chave própria (ex: linhas com chave composta)
+     */
+    public void enqueue(String table, String key, String sql, StatementBinder binder) {
+        String writeKey = table + ":" + key;
+        synchronized (lock) {
+            // Remover antes de inserir para que a linha vá para o fim da ordem de gravação
+            if (pendingWrites.remove(writeKey) == null) {
+                countOwner(writeKey, 1);
+            }
+            pendingWrites.put(writeKey, new PendingWrite(sql, binder));
+        }
+    }
+
+    // Chamado com o lock; o contador acompanha as entradas de pendingWrites e inFlightWrites
+    private void countOwner(String writeKey, int delta) {
+        int separator = writeKey.indexOf(':', writeKey.indexOf(':') + 1);
+        String owner = separator < 0 ? writeKey : writeKey.substring(0, separator);
+        writesByOwner.merge(owner, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    public boolean isPending(String table, UUID key) {
+        synchronized (lock) {
+            String writeKey = table + ":" + key;
+            return pendingWrites.containsKey(writeKey) || inFlightWrites.containsKey(writeKey);
+        }
+    }
+
+    /**
+     * Verifica se há alguma escrita pendente do jogador na tabela, incluindo as de chave composta ("UUID:...")
+     */
+    public boolean isPendingForOwner(String table, UUID owner) {
+        synchronized (lock) {
+            return writesByOwner.containsKey(table + ":" + owner);
+        }
+    }
+
+    /**
+     * Executa a ação assim que o dono não tiver mais escritas pendentes na tabela (gravadas ou descartadas),
+     * ou imediatamente se já não houver nenhuma
+     */
+    public void whenWritten(String table, UUID owner, Runnable action) {
+        String ownerKey = table + ":" + owner;
+        synchronized (lock) {
+            if (writesByOwner.containsKey(ownerKey)) {
+                ownerCallbacks.computeIfAbsent(ownerKey, key -> new ArrayList<>()).add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pendingWrites.size();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Erro ao gravar escritas pendentes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grava todas as escritas pendentes, um lote por comando SQL, em uma única transação
+     */
+    public void flush() throws SQLException {
+        Map<String, PendingWrite> snapshot;
+        synchronized (lock) {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            snapshot = pendingWrites;
+            pendingWrites = new LinkedHashMap<>();
+            inFlightWrites = snapshot;
+        }
+
+        // Agrupar por comando mantendo a ordem da primeira ocorrência
+        Map<String, List<PendingWrite>> bySql = new LinkedHashMap<>();
+        for (PendingWrite write : snapshot.values()) {
+            bySql.computeIfAbsent(write.sql, sql -> new ArrayList<>()).add(write);
+        }
+
+        try (Connection conn = databaseManager.getConnection()) {
+            try {
+                writeBatch(conn, bySql);
+            } catch (SQLException e) {
+                // Uma linha ruim não pode travar todas as outras: gravar uma a uma para isolá-la
+                logger.warn("Falha ao gravar lote de " + snapshot.size() + " escritas (" + e.getMessage() + "), gravando uma a uma");
+                writeRowByRow(conn, snapshot);
+            }
+        } catch (SQLException e) {
+            requeue(snapshot);
+            throw e;
+        } finally {
+            List<Runnable> ready = new ArrayList<>();
+            synchronized (lock) {
+                for (String writeKey : snapshot.keySet()) {
+                    countOwner(writeKey, -1);
+                }
+                inFlightWrites = new LinkedHashMap<>();
+
+                ownerCallbacks.entrySet().removeIf(entry -> {
+                    if (writesByOwner.containsKey(entry.getKey())) {
+                        return false;
+                    }
+                    ready.addAll(entry.getValue());
+                    return true;
+                });
+            }
+            runCallbacks(ready);
+        }
+    }
+
+    // Fora do lock, para que as ações possam enfileirar novas escritas
+    private void runCallbacks(List<Runnable> callbacks) {
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (Exception e) {
+                logger.error("Erro ao executar ação após gravação: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeBatch(Connection conn, Map<String, List<PendingWrite>> bySql) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            for (Map.Entry<String, List<PendingWrite>> entry : bySql.entrySet()) {
+                try (PreparedStatement stmt = conn.prepareStatement(entry.getKey())) {
+                    for (PendingWrite write : entry.getValue()) {
+                        write.binder.bind(stmt);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void writeRowByRow(Connection conn, Map<String, PendingWrite> snapshot) throws SQLException {
+        Map<String, PendingWrite> retry = new LinkedHashMap<>();
+        List<Map.Entry<String, PendingWrite>> entries = new ArrayList<>(snapshot.entrySet());
+
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<String, PendingWrite> entry = entries.get(i);
+            PendingWrite write = entry.getValue();
+
+            try (PreparedStatement stmt = conn.prepareStatement(write.sql)) {
+                write.binder.bind(stmt);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                if (!conn.isValid(2)) {
+                    // Conexão perdida: a culpa não é das linhas, devolver o restante sem contar tentativa
+                    for (int j = i; j < entries.size(); j++) {
+                        retry.put(entries.get(j).getKey(), entries.get(j).getValue());
+                    }
+                    requeue(retry);
+                    logger.error("Conexão perdida ao gravar escritas pendentes: " + e.getMessage());
+                    return;
+                }
+
+                if (++write.attempts >= MAX_ATTEMPTS) {
+                    logger.error("Escrita '" + entry.getKey() + "' descartada após " + MAX_ATTEMPTS + " tentativas: " + e.getMessage());
+                } else {
+                    retry.put(entry.getKey(), write);
+                }
+            }
+        }
+
+        requeue(retry);
+    }
+
+    private void requeue(Map<String, PendingWrite> failed) {
+        synchronized (lock) {
+            // Escritas mais novas que chegaram durante a tentativa têm precedência
+            for (String writeKey : failed.keySet()) {
+                if (!pendingWrites.containsKey(writeKey)) {
+                    countOwner(writeKey, 1);
+                }
+            }
+            Map<String, PendingWrite> merged = new LinkedHashMap<>(failed);
+            merged.putAll(pendingWrites);
+            pendingWrites = merged;
+        }
+    }
+
+    /**
+     * Para o agendamento e grava o que estiver pendente até o prazo informado
+     */
+    public void drain(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        while (getPendingCount() > 0 && System.nanoTime() < deadline) {
+            try {
+                flush();
+            } catch (SQLException e) {
+                logger.error("Erro ao gravar escritas pendentes no desligamento: " + e.getMessage());
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        int remaining = getPendingCount();
+        if (remaining > 0) {
+            logger.error(remaining + " escritas pendentes foram descartadas no desligamento");
+        }
+    }
+
+    /**
+     * Preenche os parâmetros de uma escrita no comando preparado
+     */
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private static class PendingWrite {
+        private final String sql;
+        private final StatementBinder binder;
+        private int attempts;
+
+        PendingWrite(String sql, StatementBinder binder) {
+            this.sql = sql;
+            this.binder = binder;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.gilbertomorales.howlyvelocity.utils;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+public class UuidCodec {
+
+    private UuidCodec() {
+    }
+
+    /**
+     * Converte um UUID para os 16 bytes gravados no banco
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converte os 16 bytes lidos do banco de volta para UUID
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Define um UUID como parâmetro binário de uma consulta
+     */
+    public static void set(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        stmt.setBytes(index, toBytes(uuid));
+    }
+
+    /**
+     * Lê uma coluna binária como UUID
+     */
+    public static UUID get(ResultSet rs, String column) throws SQLException {
+        return fromBytes(rs.getBytes(column));
+    }
+}